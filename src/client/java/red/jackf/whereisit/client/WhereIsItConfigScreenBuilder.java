@@ -506,6 +506,18 @@ public class WhereIsItConfigScreenBuilder {
                                 .coloured(true)
                                 .onOffFormatter())
                         .build())
+                .option(Option.<Integer>createBuilder()
+                        .name(translatable("whereisit.config.common.maxNestedSearchDepth"))
+                        .binding(
+                                defaults.getCommon().maxNestedSearchDepth,
+                                () -> config.getCommon().maxNestedSearchDepth,
+                                i -> config.getCommon().maxNestedSearchDepth = i
+                        )
+                        .description(OptionDescription.of(translatable("whereisit.config.common.maxNestedSearchDepth.description")))
+                        .controller(opt -> IntegerSliderControllerBuilder.create(opt)
+                                .range(1, 8)
+                                .step(1))
+                        .build())
                 .option(Option.<Integer>createBuilder()
                         .name(translatable("whereisit.config.common.fadeoutTime"))
                         .binding(
@@ -1,11 +1,18 @@
 package red.jackf.whereisit.client.defaults;
 
 import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
+import net.minecraft.client.Minecraft;
+import org.jetbrains.annotations.Nullable;
+import red.jackf.whereisit.api.SearchRequest;
 import red.jackf.whereisit.api.SearchResult;
 import red.jackf.whereisit.client.WhereIsItClient;
+import red.jackf.whereisit.client.api.events.OnResultsCleared;
 import red.jackf.whereisit.client.api.events.SearchInvoker;
 import red.jackf.whereisit.client.render.Rendering;
+import red.jackf.whereisit.networking.ClientboundCompactResultsPacket;
+import red.jackf.whereisit.networking.ClientboundResultsFramePacket;
 import red.jackf.whereisit.networking.ClientboundResultsPacket;
+import red.jackf.whereisit.networking.ServerboundCancelSearchPacket;
 import red.jackf.whereisit.networking.ServerboundSearchForItemPacket;
 
 import java.util.Collection;
@@ -21,7 +28,8 @@ import java.util.function.Consumer;
  */
 public class SearchInvokerDefaults {
     private static final AtomicLong packetCounter = new AtomicLong(0);
-    private static final ConcurrentMap<Long, Consumer<Collection<SearchResult>>> consumers = new ConcurrentHashMap<>();
+    // the server only echoes requests for /whereis, so our own are kept here to resolve results by ID
+    private static final ConcurrentMap<Long, PendingRequest> consumers = new ConcurrentHashMap<>();
 
     private static final Timer consumerCleanupTimer = new Timer("WhereIsIt Network Consumer Cleanup", true);
     private static final Long CONSUMER_CLEANUP_DELAY = 10_000L; // milliseconds
@@ -40,7 +48,7 @@ public class SearchInvokerDefaults {
             if (ClientPlayNetworking.canSend(ServerboundSearchForItemPacket.TYPE)) {
                 var id = packetCounter.incrementAndGet();
                 ClientPlayNetworking.send(new ServerboundSearchForItemPacket(id, request));
-                consumers.put(id, resultConsumer);
+                consumers.put(id, new PendingRequest(request, resultConsumer));
 
                 // prevent requests piling up
                 consumerCleanupTimer.schedule(removeFromConsumerMap(id), CONSUMER_CLEANUP_DELAY);
@@ -51,22 +59,46 @@ public class SearchInvokerDefaults {
             }
         });
 
-        ClientPlayNetworking.registerGlobalReceiver(ClientboundResultsPacket.TYPE, (packet, context) -> {
-            // we didn't send a matching packet, so assume the default Where Is It handling of overlay render
-            if (packet.id() == ClientboundResultsPacket.WHEREIS_COMMAND_ID) {
-                Rendering.resetSearchTime();
-                WhereIsItClient.recieveResults(packet.results());
-            } else {
-                var consumer = consumers.remove(packet.id());
-                if (consumer != null) {
-                    context.client().execute(() -> consumer.accept(packet.results()));
-                }
-            }
+        // results were cleared, including before each new search, so searches still running aren't wanted anymore
+        OnResultsCleared.EVENT.register(SearchInvokerDefaults::cancelPending);
+
+        ClientPlayNetworking.registerGlobalReceiver(ClientboundResultsPacket.TYPE, (packet, context) ->
+                handleResults(packet.id(), packet.results(), true, packet.request(), context.client()));
+
+        // results streamed in as the server finds them; keep the consumer until the last frame
+        ClientPlayNetworking.registerGlobalReceiver(ClientboundResultsFramePacket.TYPE, (packet, context) ->
+                handleResults(packet.id(), packet.results(), packet.done(), null, context.client()));
+
+        ClientPlayNetworking.registerGlobalReceiver(ClientboundCompactResultsPacket.TYPE, (packet, context) ->
+                handleResults(packet.id(), packet.results(), packet.done(), packet.request(), context.client()));
+    }
 
-            // update request, in case we don't have one
-            if (packet.request() != null) {
-                Rendering.setLastRequest(packet.request());
+    private static void cancelPending() {
+        var canCancel = ClientPlayNetworking.canSend(ServerboundCancelSearchPacket.TYPE);
+        for (Long id : consumers.keySet()) {
+            consumers.remove(id);
+            if (canCancel) ClientPlayNetworking.send(new ServerboundCancelSearchPacket(id));
+        }
+    }
+
+    private static void handleResults(long id, Collection<SearchResult> results, boolean done, @Nullable SearchRequest request, Minecraft client) {
+        // we didn't send a matching packet, so assume the default Where Is It handling of overlay render
+        if (id == ClientboundResultsPacket.WHEREIS_COMMAND_ID) {
+            Rendering.resetSearchTime();
+            WhereIsItClient.recieveResults(results);
+        } else {
+            var pending = done ? consumers.remove(id) : consumers.get(id);
+            if (pending != null) {
+                if (request == null && done) request = pending.request();
+                if (!results.isEmpty()) client.execute(() -> pending.consumer().accept(results));
             }
-        });
+        }
+
+        // update request, in case we don't have one
+        if (request != null) {
+            Rendering.setLastRequest(request);
+        }
     }
+
+    private record PendingRequest(SearchRequest request, Consumer<Collection<SearchResult>> consumer) {}
 }
@@ -3,6 +3,10 @@ package red.jackf.whereisit;
 import com.mojang.logging.LogUtils;
 import net.fabricmc.api.ModInitializer;
 import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
+import net.fabricmc.fabric.api.entity.event.v1.ServerEntityWorldChangeEvents;
+import net.fabricmc.fabric.api.entity.event.v1.ServerPlayerEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 import net.fabricmc.fabric.api.networking.v1.PayloadTypeRegistry;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
@@ -10,10 +14,20 @@ import net.minecraft.resources.ResourceLocation;
 import org.slf4j.Logger;
 import red.jackf.whereisit.command.WhereIsCommand;
 import red.jackf.whereisit.config.WhereIsItConfig;
+import red.jackf.whereisit.networking.ClientboundCompactResultsPacket;
+import red.jackf.whereisit.networking.ClientboundResultsFramePacket;
 import red.jackf.whereisit.networking.ClientboundResultsPacket;
+import red.jackf.whereisit.networking.ServerboundCancelSearchPacket;
 import red.jackf.whereisit.networking.ServerboundSearchForItemPacket;
 import red.jackf.whereisit.plugin.WhereIsItPluginLoader;
+import red.jackf.whereisit.search.ChunkItemFilter;
+import red.jackf.whereisit.search.ContainerIndex;
 import red.jackf.whereisit.search.SearchHandler;
+import red.jackf.whereisit.search.SearchScheduler;
+import red.jackf.whereisit.search.StorageClassCache;
+import red.jackf.whereisit.search.TargetedBlockSearchers;
+import red.jackf.whereisit.util.ItemIdSets;
+import red.jackf.whereisit.util.ItemStorageCache;
 import red.jackf.whereisit.util.RateLimiter;
 
 public class WhereIsIt implements ModInitializer {
@@ -36,13 +50,36 @@ public class WhereIsIt implements ModInitializer {
 
 		CommandRegistrationCallback.EVENT.register(WhereIsCommand::register);
 
-		ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> RateLimiter.disconnected(handler.player));
+		ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> {
+			RateLimiter.disconnected(handler.player);
+			SearchHandler.cancel(handler.player);
+		});
+		// results are for the dimension and player entity the search started with
+		ServerEntityWorldChangeEvents.AFTER_PLAYER_CHANGE_WORLD.register((player, origin, destination) -> SearchHandler.cancel(player));
+		ServerPlayerEvents.AFTER_RESPAWN.register((oldPlayer, newPlayer, alive) -> SearchHandler.cancel(newPlayer));
+
+		ServerTickEvents.END_SERVER_TICK.register(SearchScheduler::tick);
+		ServerLifecycleEvents.SERVER_STOPPED.register(server -> {
+			SearchScheduler.clear();
+			SearchHandler.clear();
+		});
+		ItemIdSets.setup();
+		ItemStorageCache.setup();
+		ContainerIndex.setup();
+		StorageClassCache.setup();
+		TargetedBlockSearchers.setup();
+		ChunkItemFilter.setup();
 
 		PayloadTypeRegistry.playS2C().register(ClientboundResultsPacket.TYPE, ClientboundResultsPacket.STREAM_CODEC);
+		PayloadTypeRegistry.playS2C().register(ClientboundResultsFramePacket.TYPE, ClientboundResultsFramePacket.STREAM_CODEC);
+		PayloadTypeRegistry.playS2C().register(ClientboundCompactResultsPacket.TYPE, ClientboundCompactResultsPacket.STREAM_CODEC);
 		PayloadTypeRegistry.playC2S().register(ServerboundSearchForItemPacket.TYPE, ServerboundSearchForItemPacket.STREAM_CODEC);
+		PayloadTypeRegistry.playC2S().register(ServerboundCancelSearchPacket.TYPE, ServerboundCancelSearchPacket.STREAM_CODEC);
 
 		ServerPlayNetworking.registerGlobalReceiver(ServerboundSearchForItemPacket.TYPE, (payload, context) ->
 				SearchHandler.handleFromPacket(payload, context.player(), context.responseSender()));
+		ServerPlayNetworking.registerGlobalReceiver(ServerboundCancelSearchPacket.TYPE, (payload, context) ->
+				SearchHandler.handleCancelFromPacket(payload, context.player(), context.responseSender()));
 
 		WhereIsItPluginLoader.load();
 	}
@@ -2,20 +2,33 @@ package red.jackf.whereisit.api;
 
 import com.google.common.collect.Lists;
 import com.mojang.serialization.Codec;
+import net.fabricmc.fabric.api.transfer.v1.item.ItemVariant;
+import net.minecraft.core.component.DataComponentPatch;
+import net.minecraft.core.component.DataComponents;
 import net.minecraft.nbt.ListTag;
 import net.minecraft.nbt.NbtOps;
 import net.minecraft.nbt.Tag;
+import net.minecraft.network.RegistryFriendlyByteBuf;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
 import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
 import red.jackf.whereisit.WhereIsIt;
+import red.jackf.whereisit.api.criteria.CompiledCriteria;
 import red.jackf.whereisit.api.criteria.Criterion;
 import red.jackf.whereisit.api.criteria.builtin.AllOfCriterion;
-import red.jackf.whereisit.api.search.NestedItemsGrabber;
+import red.jackf.whereisit.api.search.NestedItemsVisitor;
 import red.jackf.whereisit.config.WhereIsItConfig;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -23,9 +36,17 @@ import java.util.stream.Collectors;
  */
 public class SearchRequest implements Consumer<Criterion> {
     public static final Codec<SearchRequest> CODEC = Criterion.CODEC.listOf().xmap(SearchRequest::new, req -> req.criteria);
+    public static final StreamCodec<RegistryFriendlyByteBuf, SearchRequest> STREAM_CODEC = Criterion.LIST_STREAM_CODEC.map(SearchRequest::new, req -> req.criteria);
 
     public static final String ID = "Id";
     private final List<Criterion> criteria;
+    // built on first test, and reused for every stack in a search
+    private @Nullable CompiledCriteria compiled = null;
+    private final Predicate<ItemStack> tester = this::test;
+    // whether each distinct nested contents matched, so identical shulker boxes and bundles are only searched once
+    private final Map<NestedContentsKey, Boolean> nestedResults = new ConcurrentHashMap<>();
+    private static final int MAX_NESTED_RESULTS = 4096;
+    private final Map<DataKey<?>, Object> searchData = new ConcurrentHashMap<>();
 
     public SearchRequest() {
         this.criteria = new ArrayList<>();
@@ -45,14 +66,71 @@ public class SearchRequest implements Consumer<Criterion> {
         if (request.test(stack)) return true;
 
         if (WhereIsItConfig.INSTANCE.instance().getCommon().doNestedSearch) {
-            var nested = NestedItemsGrabber.get(stack);
+            return checkNested(stack, request);
+        }
+
+        return false;
+    }
+
+    /**
+     * Perform a check on an item variant, such as from a Transfer API storage view. Only builds an ItemStack if a
+     * criterion or nested items need one.
+     * @param variant Item variant to test against
+     * @param amount Amount of the variant held
+     * @param request Search Request to test with
+     * @return Whether this variant or any sub-items if applicable matches the request
+     */
+    public static boolean check(ItemVariant variant, long amount, SearchRequest request) {
+        if (request.getCompiled().testVariant(variant, amount)) return true;
 
-            return nested.anyMatch(request::test);
+        // nested items are always held in components
+        if (WhereIsItConfig.INSTANCE.instance().getCommon().doNestedSearch && !variant.getComponents().isEmpty()) {
+            return checkNested(variant.toStack((int) Math.min(amount, Integer.MAX_VALUE)), request);
         }
 
         return false;
     }
 
+    private static boolean checkNested(ItemStack stack, SearchRequest request) {
+        var key = NestedContentsKey.of(stack);
+        if (key == null) return NestedItemsVisitor.anyMatch(stack, request.tester);
+
+        var cached = request.nestedResults.get(key);
+        if (cached != null) return cached;
+
+        var result = NestedItemsVisitor.anyMatch(stack, request.tester);
+        if (request.nestedResults.size() < MAX_NESTED_RESULTS) request.nestedResults.put(key, result);
+        return result;
+    }
+
+    /**
+     * Get data attached to this request, creating it if not present. Each server-side search works on its own
+     * {@link #copy()} of a request, which is cleared when the search finishes, so this can be used for caches shared
+     * between positions in one search, such as by {@link red.jackf.whereisit.api.search.BlockSearcher}s.
+     * @param key Key of the data to get
+     * @return Data for this key, created with the key's factory if this is the first use in this search
+     * @param <T> Type of data held
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getSearchData(DataKey<T> key) {
+        return (T) searchData.computeIfAbsent(key, k -> k.factory.get());
+    }
+
+    /**
+     * Remove all data attached with {@link #getSearchData(DataKey)}, so nothing from a finished search is kept.
+     */
+    @ApiStatus.Internal
+    public void clearSearchData() {
+        searchData.clear();
+    }
+
+    /**
+     * @return A new request with the same criteria, without any caches or search data from this one.
+     */
+    public SearchRequest copy() {
+        return new SearchRequest(criteria);
+    }
+
     /**
      * @return Whether this request has any criteria.
      */
@@ -66,6 +144,8 @@ public class SearchRequest implements Consumer<Criterion> {
      */
     public void accept(Criterion criterion) {
         if (criterion.valid()) {
+            this.compiled = null;
+            this.nestedResults.clear();
             if (criterion instanceof AllOfCriterion allOfCriterion) {
                 criteria.addAll(allOfCriterion.criteria);
             } else {
@@ -76,6 +156,14 @@ public class SearchRequest implements Consumer<Criterion> {
         }
     }
 
+    /**
+     * @return Set of items that this request could match, or null if it could match any item.
+     * @see Criterion#getAcceptedItems()
+     */
+    public @Nullable Set<Item> getAcceptedItems() {
+        return Criterion.intersectAcceptedItems(criteria);
+    }
+
     /**
      * Serialises this request into a Tag for debugging purposes.
      *
@@ -100,9 +188,53 @@ public class SearchRequest implements Consumer<Criterion> {
      */
     @ApiStatus.Internal
     private boolean test(ItemStack stack) {
-        for (Criterion criterion : criteria)
-            if (!criterion.test(stack)) return false;
-        return true;
+        return getCompiled().test(stack);
+    }
+
+    /**
+     * @return This request's criteria compiled for testing, rebuilt if out of date.
+     */
+    @ApiStatus.Internal
+    public CompiledCriteria getCompiled() {
+        var compiled = this.compiled;
+        if (compiled == null || compiled.isStale()) {
+            this.compiled = compiled = CompiledCriteria.compile(criteria);
+            this.nestedResults.clear();
+        }
+        return compiled;
+    }
+
+    /**
+     * Key for data attached to a request with {@link #getSearchData(DataKey)}. Compared by identity, so keep instances
+     * in a constant.
+     * @param <T> Type of data held
+     */
+    public static final class DataKey<T> {
+        private final Supplier<T> factory;
+
+        private DataKey(Supplier<T> factory) {
+            this.factory = factory;
+        }
+
+        /**
+         * @param factory Creates the data the first time it's used in a request
+         * @return A new data key
+         * @param <T> Type of data held
+         */
+        public static <T> DataKey<T> of(Supplier<T> factory) {
+            return new DataKey<>(factory);
+        }
+    }
+
+    /**
+     * Identifies a stack's nested contents for caching. Only stacks with vanilla container or bundle contents are
+     * cached; the key holds the stack's whole component patch, as other nested item handlers may read other components.
+     */
+    private record NestedContentsKey(Item item, DataComponentPatch components) {
+        private static @Nullable NestedContentsKey of(ItemStack stack) {
+            if (!stack.has(DataComponents.CONTAINER) && !stack.has(DataComponents.BUNDLE_CONTENTS)) return null;
+            return new NestedContentsKey(stack.getItem(), stack.getComponentsPatch());
+        }
     }
 
     @Override
@@ -33,18 +33,29 @@ public final class SearchResult {
     private final @Nullable ItemStack item;
     private final @Nullable Component name;
     private final @Nullable Vec3 nameOffset;
-    private final Set<BlockPos> otherPositions = new HashSet<>();
+    private final Set<BlockPos> otherPositions;
 
+    // takes ownership of otherPositions, which must be mutable and not used elsewhere
     private SearchResult(BlockPos pos,
                          @Nullable ItemStack item,
                          @Nullable Component name,
                          @Nullable Vec3 nameOffset,
-                         Collection<BlockPos> otherPositions) {
+                         Set<BlockPos> otherPositions) {
         this.pos = pos;
         this.item = item;
         this.name = name;
         this.nameOffset = nameOffset;
-        this.otherPositions.addAll(otherPositions);
+        this.otherPositions = otherPositions;
+    }
+
+    /**
+     * Create a result that takes ownership of a set of other positions instead of copying it, such as when decoding.
+     * @param otherPositions Mutable set of other positions, which must not be used after this call
+     * @return A search result using the given set
+     */
+    @ApiStatus.Internal
+    public static SearchResult ofOwned(BlockPos pos, @Nullable ItemStack item, @Nullable Component name, @Nullable Vec3 nameOffset, HashSet<BlockPos> otherPositions) {
+        return new SearchResult(pos, item, name, nameOffset, otherPositions);
     }
 
     public static Builder builder(BlockPos pos) {
@@ -84,12 +95,20 @@ public final class SearchResult {
      * @return Search result with other positions added
      */
     public SearchResult withOtherPositions(List<BlockPos> otherPositions) {
-        var copy = new SearchResult(pos, item, name, nameOffset, otherPositions);
-        copy.otherPositions.addAll(otherPositions);
+        var copy = new SearchResult(pos, item, name, nameOffset, new HashSet<>(otherPositions));
         copy.otherPositions.remove(pos);
         return copy;
     }
 
+    /**
+     * Return a copy of this result which doesn't share its item stack or positions with this one, such as for handing
+     * off to another thread.
+     * @return Independent copy of this search result
+     */
+    public SearchResult copy() {
+        return new SearchResult(pos, item == null ? null : item.copy(), name, nameOffset, new HashSet<>(otherPositions));
+    }
+
     /**
      * Calculate the default offset, by taking the average position for this result and returning the center of the
      * block above
@@ -134,7 +153,7 @@ public final class SearchResult {
         }
 
         public SearchResult build() {
-            return new SearchResult(pos, item, name, nameOffset, otherPositions);
+            return new SearchResult(pos, item, name, nameOffset, new HashSet<>(otherPositions));
         }
     }
 
@@ -0,0 +1,222 @@
+package red.jackf.whereisit.api.criteria;
+
+import net.fabricmc.fabric.api.transfer.v1.item.ItemVariant;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.core.component.DataComponentPatch;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.ApiStatus;
+import red.jackf.whereisit.api.criteria.builtin.AllOfCriterion;
+import red.jackf.whereisit.api.criteria.builtin.AnyOfCriterion;
+import red.jackf.whereisit.api.criteria.builtin.ComponentsCriterion;
+import red.jackf.whereisit.api.criteria.builtin.ItemCriterion;
+import red.jackf.whereisit.util.ItemIdSets;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * <p>A list of criteria compiled into a predicate tree for testing many stacks. Nested {@link AllOfCriterion} and
+ * {@link AnyOfCriterion} are flattened, duplicate criteria are removed, and each group is ordered by
+ * {@link Criterion#cost()} so cheap checks can rule out a stack before expensive ones run.</p>
+ *
+ * <p>Criteria which {@link Criterion#onlyTestsItem() only test a stack's item} are merged into one set of item IDs per
+ * group, so any number of item and tag checks become a single bit test. These sets come from tags, so compiled
+ * criteria become {@link #isStale() stale} when tags are reloaded.</p>
+ */
+@ApiStatus.Internal
+public final class CompiledCriteria implements Predicate<ItemStack> {
+    private static final Node ALWAYS = new Node(stack -> true, (variant, amount) -> true, 0);
+    private static final Node NEVER = new Node(stack -> false, (variant, amount) -> false, 0);
+
+    private final Node root;
+    private final @Nullable ItemVariant probeVariant;
+    private final boolean onlyProbeVariant;
+    private final int generation = ItemIdSets.generation();
+
+    private CompiledCriteria(Node root, @Nullable ItemVariant probeVariant, boolean onlyProbeVariant) {
+        this.root = root;
+        this.probeVariant = probeVariant;
+        this.onlyProbeVariant = onlyProbeVariant;
+    }
+
+    /**
+     * @return Whether tags have been reloaded since these criteria were compiled, and they need compiling again.
+     */
+    public boolean isStale() {
+        return generation != ItemIdSets.generation();
+    }
+
+    /**
+     * Compile a list of criteria which must all match.
+     * @param criteria Criteria to compile
+     * @return Predicate equivalent to testing every criterion in order
+     */
+    public static CompiledCriteria compile(Collection<Criterion> criteria) {
+        Set<Criterion> terms = new LinkedHashSet<>();
+        flatten(criteria, terms, true);
+
+        // requests for a single item, optionally with exact components, can be answered by asking storages directly
+        Item item = null;
+        DataComponentPatch components = null;
+        var probeable = true;
+        for (Criterion term : terms) {
+            if (term instanceof ItemCriterion itemCriterion && (item == null || item == itemCriterion.item())) {
+                item = itemCriterion.item();
+            } else if (term instanceof ComponentsCriterion componentsCriterion && (components == null || components.equals(componentsCriterion.components()))) {
+                components = componentsCriterion.components();
+            } else {
+                probeable = false;
+                break;
+            }
+        }
+        ItemVariant probeVariant = null;
+        if (probeable && item != null)
+            probeVariant = ItemVariant.of(item, components != null ? components : DataComponentPatch.EMPTY);
+
+        return new CompiledCriteria(group(terms, true), probeVariant, probeVariant != null && components != null);
+    }
+
+    /**
+     * If these criteria only check for an item and optionally its exact components, returns a variant which always
+     * matches them. Storages can then be asked for this variant directly instead of iterating their contents.
+     * @return Variant that always matches these criteria, or null if there isn't a single one.
+     */
+    public @Nullable ItemVariant getProbeVariant() {
+        return probeVariant;
+    }
+
+    /**
+     * @return Whether {@link #getProbeVariant()} is the only variant these criteria can match, so a storage without it
+     * holds no matching items (ignoring nested items).
+     */
+    public boolean matchesOnlyProbeVariant() {
+        return onlyProbeVariant;
+    }
+
+    @Override
+    public boolean test(ItemStack stack) {
+        return root.stack.test(stack);
+    }
+
+    /**
+     * Test against an item variant, without building a stack where the criteria allow.
+     * @param variant Variant to test
+     * @param amount Amount of the variant held
+     * @return If the variant matches every criterion
+     * @see Criterion#testVariant(ItemVariant, long)
+     */
+    public boolean testVariant(ItemVariant variant, long amount) {
+        return root.variant.test(variant, amount);
+    }
+
+    private static Node compileAllOf(Collection<Criterion> criteria) {
+        Set<Criterion> terms = new LinkedHashSet<>();
+        flatten(criteria, terms, true);
+        return group(terms, true);
+    }
+
+    private static Node compileAnyOf(Collection<Criterion> criteria) {
+        Set<Criterion> terms = new LinkedHashSet<>();
+        flatten(criteria, terms, false);
+        return group(terms, false);
+    }
+
+    // pulls nested groups of the same kind up into this one
+    private static void flatten(Collection<Criterion> criteria, Set<Criterion> terms, boolean allOf) {
+        for (Criterion criterion : criteria) {
+            if (allOf && criterion instanceof AllOfCriterion nested) {
+                flatten(nested.criteria, terms, true);
+            } else if (!allOf && criterion instanceof AnyOfCriterion nested) {
+                flatten(nested.getCriteria(), terms, false);
+            } else {
+                terms.add(criterion);
+            }
+        }
+    }
+
+    private static Node group(Set<Criterion> terms, boolean allOf) {
+        List<Node> nodes = new ArrayList<>(terms.size());
+        BitSet itemIds = null;
+        for (Criterion term : terms) {
+            if (term.onlyTestsItem()) {
+                var ids = term.getAcceptedItemIds();
+                if (ids != null) {
+                    if (itemIds == null) itemIds = (BitSet) ids.clone();
+                    else if (allOf) itemIds.and(ids);
+                    else itemIds.or(ids);
+                    continue;
+                }
+            }
+
+            if (term instanceof AllOfCriterion nested) nodes.add(compileAllOf(nested.criteria));
+            else if (term instanceof AnyOfCriterion nested) nodes.add(compileAnyOf(nested.getCriteria()));
+            else nodes.add(new Node(term::test, term::testVariant, term.cost()));
+        }
+        if (itemIds != null) {
+            var ids = itemIds;
+            nodes.add(new Node(stack -> ids.get(ItemIdSets.idOf(stack)),
+                    (variant, amount) -> ids.get(BuiltInRegistries.ITEM.getId(variant.getItem())), 0));
+        }
+        nodes.sort(Comparator.comparingInt(Node::cost));
+
+        if (nodes.isEmpty()) return allOf ? ALWAYS : NEVER;
+        if (nodes.size() == 1) return nodes.get(0);
+
+        var cost = 0;
+        for (Node node : nodes) cost += node.cost;
+        return new Node(
+                combine(nodes.stream().map(Node::stack).toList(), allOf),
+                combineVariant(nodes.stream().map(Node::variant).toList(), allOf),
+                cost);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Predicate<T> combine(List<Predicate<T>> list, boolean allOf) {
+        Predicate<T>[] predicates = list.toArray(Predicate[]::new);
+        if (allOf) {
+            return value -> {
+                for (Predicate<T> predicate : predicates)
+                    if (!predicate.test(value)) return false;
+                return true;
+            };
+        } else {
+            return value -> {
+                for (Predicate<T> predicate : predicates)
+                    if (predicate.test(value)) return true;
+                return false;
+            };
+        }
+    }
+
+    private static VariantPredicate combineVariant(List<VariantPredicate> list, boolean allOf) {
+        VariantPredicate[] predicates = list.toArray(VariantPredicate[]::new);
+        if (allOf) {
+            return (variant, amount) -> {
+                for (VariantPredicate predicate : predicates)
+                    if (!predicate.test(variant, amount)) return false;
+                return true;
+            };
+        } else {
+            return (variant, amount) -> {
+                for (VariantPredicate predicate : predicates)
+                    if (predicate.test(variant, amount)) return true;
+                return false;
+            };
+        }
+    }
+
+    @FunctionalInterface
+    private interface VariantPredicate {
+        boolean test(ItemVariant variant, long amount);
+    }
+
+    private record Node(Predicate<ItemStack> stack, VariantPredicate variant, int cost) {}
+}
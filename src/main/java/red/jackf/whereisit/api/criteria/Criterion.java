@@ -1,10 +1,23 @@
 package red.jackf.whereisit.api.criteria;
 
 import com.mojang.serialization.Codec;
+import net.fabricmc.fabric.api.transfer.v1.item.ItemVariant;
 import net.minecraft.core.Registry;
+import net.minecraft.network.RegistryFriendlyByteBuf;
+import net.minecraft.network.codec.ByteBufCodecs;
+import net.minecraft.network.codec.StreamCodec;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
+import org.jetbrains.annotations.Nullable;
 import red.jackf.whereisit.api.criteria.builtin.AnyOfCriterion;
+import red.jackf.whereisit.util.ItemIdSets;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * A test for an ItemStack. Register a supplier to {@link #register(ResourceLocation, CriterionType)}
@@ -12,6 +25,15 @@ import red.jackf.whereisit.api.criteria.builtin.AnyOfCriterion;
 public interface Criterion {
     Codec<Criterion> CODEC = CriterionType.REGISTRY.byNameCodec()
             .dispatch("type", Criterion::type, CriterionType::codec);
+    /**
+     * Network codec for criteria. Writes the type's ID, then the criterion using its type's
+     * {@link CriterionType#streamCodec()} if present, or its {@link CriterionType#codec()} as NBT if not.
+     */
+    StreamCodec<RegistryFriendlyByteBuf, Criterion> STREAM_CODEC = StreamCodec.of(CriterionType::encode, CriterionType::decode);
+    /**
+     * Network codec for lists of criteria, limited to {@link CriterionType#MAX_LIST_SIZE} entries.
+     */
+    StreamCodec<RegistryFriendlyByteBuf, List<Criterion>> LIST_STREAM_CODEC = STREAM_CODEC.apply(ByteBufCodecs.list(CriterionType.MAX_LIST_SIZE));
 
     CriterionType<?> type();
 
@@ -36,6 +58,73 @@ public interface Criterion {
      */
     boolean test(ItemStack stack);
 
+    /**
+     * Test against an item variant, such as from a Transfer API storage view. Override this if the test can be done
+     * without building a stack, to avoid allocating one for every view searched.
+     * @param variant Variant to test against
+     * @param amount Amount of the variant held, used as the count of the stack tested by default.
+     * @return If this criterion matches the variant.
+     */
+    default boolean testVariant(ItemVariant variant, long amount) {
+        return test(variant.toStack((int) Math.min(amount, Integer.MAX_VALUE)));
+    }
+
+    /**
+     * Relative cost of {@link #test(ItemStack)}, used to check cheaper criteria first when a request is compiled. As a
+     * guide, item and tag checks are 1-2, single component lookups around 5, and full component comparisons or Transfer
+     * API lookups 15 or more.
+     * @return Relative cost of testing this criterion
+     */
+    default int cost() {
+        return 10;
+    }
+
+    /**
+     * If this criterion can only ever match stacks of certain items, returns the set of those items. This is used to
+     * narrow down which containers need to be searched, so it must contain every item that {@link #test(ItemStack)}
+     * could return true for.
+     * @return Set of items this criterion could match, or null if it could match any item.
+     */
+    default @Nullable Set<Item> getAcceptedItems() {
+        return null;
+    }
+
+    /**
+     * Registry IDs of the items from {@link #getAcceptedItems()}, for testing stacks with a single bit check. Override
+     * this if the set can be cached, such as for tags.
+     * @return Set of item IDs this criterion could match, or null if it could match any item. Must not be modified.
+     * @see ItemIdSets#idOf(ItemStack)
+     */
+    default @Nullable BitSet getAcceptedItemIds() {
+        var items = getAcceptedItems();
+        return items == null ? null : ItemIdSets.of(items);
+    }
+
+    /**
+     * Whether {@link #test(ItemStack)} only depends on a stack's item, in which case {@link #getAcceptedItemIds()}
+     * exactly describes it and can be tested in its place.
+     * @return If this criterion only checks a stack's item
+     */
+    default boolean onlyTestsItem() {
+        return false;
+    }
+
+    /**
+     * Combine the accepted items of a group of criteria which must all match.
+     * @param criteria Criteria to combine
+     * @return Items accepted by every criterion that limits items, or null if none of them do.
+     */
+    static @Nullable Set<Item> intersectAcceptedItems(Collection<Criterion> criteria) {
+        Set<Item> items = null;
+        for (Criterion criterion : criteria) {
+            var accepted = criterion.getAcceptedItems();
+            if (accepted == null) continue;
+            if (items == null) items = new HashSet<>(accepted);
+            else items.retainAll(accepted);
+        }
+        return items;
+    }
+
     /**
      * Register a new criteria to the registry. Criterion that aren't known to the server will be ignored.
      * @param id ID of the criterion in the registry.
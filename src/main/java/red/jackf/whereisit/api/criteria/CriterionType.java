@@ -1,16 +1,75 @@
 package red.jackf.whereisit.api.criteria;
 
 import com.mojang.serialization.MapCodec;
+import io.netty.handler.codec.DecoderException;
+import io.netty.handler.codec.EncoderException;
 import net.fabricmc.fabric.api.event.registry.FabricRegistryBuilder;
 import net.minecraft.core.Registry;
+import net.minecraft.network.RegistryFriendlyByteBuf;
+import net.minecraft.network.codec.ByteBufCodecs;
+import net.minecraft.network.codec.StreamCodec;
 import net.minecraft.resources.ResourceKey;
+import org.jetbrains.annotations.Nullable;
 import red.jackf.whereisit.WhereIsIt;
 
-public record CriterionType<T extends Criterion>(MapCodec<T> codec) {
+/**
+ * Type of a criterion, used for serialization.
+ * @param codec Codec used for saving and as a fallback for networking.
+ * @param streamCodec Optional codec used for networking. Criteria without one are sent as NBT using <code>codec</code>,
+ *                    which is slower and larger.
+ * @param <T> Criterion class
+ */
+public record CriterionType<T extends Criterion>(MapCodec<T> codec, @Nullable StreamCodec<RegistryFriendlyByteBuf, T> streamCodec) {
     public static final ResourceKey<Registry<CriterionType<? extends Criterion>>> REGISTRY_KEY = ResourceKey.createRegistryKey(WhereIsIt.id("criteria_supplier"));
     public static final Registry<CriterionType<? extends Criterion>> REGISTRY = FabricRegistryBuilder.createSimple(REGISTRY_KEY).buildAndRegister();
+    /**
+     * Maximum number of criteria in a list sent over the network, such as in {@link Criterion#LIST_STREAM_CODEC}.
+     */
+    public static final int MAX_LIST_SIZE = 256;
+    /**
+     * Maximum depth of criteria nested within each other that will be decoded from the network.
+     */
+    public static final int MAX_NESTING_DEPTH = 64;
+
+    // depth of criteria currently being decoded on each thread, as nested criteria are decoded through Criterion.STREAM_CODEC
+    private static final ThreadLocal<int[]> DECODE_DEPTH = ThreadLocal.withInitial(() -> new int[1]);
+
+    public CriterionType(MapCodec<T> codec) {
+        this(codec, null);
+    }
 
     public static <T extends Criterion> CriterionType<T> of(MapCodec<T> codec) {
         return new CriterionType<>(codec);
     }
+
+    public static <T extends Criterion> CriterionType<T> of(MapCodec<T> codec, StreamCodec<RegistryFriendlyByteBuf, T> streamCodec) {
+        return new CriterionType<>(codec, streamCodec);
+    }
+
+    private StreamCodec<RegistryFriendlyByteBuf, T> networkCodec() {
+        return streamCodec != null ? streamCodec : ByteBufCodecs.fromCodecWithRegistries(codec.codec());
+    }
+
+    @SuppressWarnings("unchecked")
+    static void encode(RegistryFriendlyByteBuf buf, Criterion criterion) {
+        var type = (CriterionType<Criterion>) criterion.type();
+        var id = REGISTRY.getKey(type);
+        if (id == null) throw new EncoderException("Unregistered criterion type for " + criterion);
+        buf.writeResourceLocation(id);
+        type.networkCodec().encode(buf, criterion);
+    }
+
+    static Criterion decode(RegistryFriendlyByteBuf buf) {
+        var depth = DECODE_DEPTH.get();
+        if (depth[0] >= MAX_NESTING_DEPTH) throw new DecoderException("Criteria nested deeper than " + MAX_NESTING_DEPTH);
+        depth[0]++;
+        try {
+            var id = buf.readResourceLocation();
+            var type = REGISTRY.getValue(id);
+            if (type == null) throw new DecoderException("Unknown criterion type " + id);
+            return type.networkCodec().decode(buf);
+        } finally {
+            depth[0]--;
+        }
+    }
 }
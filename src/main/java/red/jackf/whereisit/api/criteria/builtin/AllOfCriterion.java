@@ -1,13 +1,20 @@
 package red.jackf.whereisit.api.criteria.builtin;
 
 import com.mojang.serialization.MapCodec;
+import net.fabricmc.fabric.api.transfer.v1.item.ItemVariant;
+import net.minecraft.network.RegistryFriendlyByteBuf;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
+import org.jetbrains.annotations.Nullable;
 import red.jackf.whereisit.api.criteria.Criterion;
 import red.jackf.whereisit.api.criteria.CriterionType;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 import java.util.function.Consumer;
 
 /**
@@ -16,7 +23,8 @@ import java.util.function.Consumer;
  */
 public class AllOfCriterion implements Criterion, Consumer<Criterion> {
     public static final MapCodec<AllOfCriterion> CODEC = Criterion.CODEC.listOf().xmap(AllOfCriterion::new, all -> all.criteria).fieldOf("all_of");
-    public static final CriterionType<AllOfCriterion> TYPE = CriterionType.of(CODEC);
+    public static final StreamCodec<RegistryFriendlyByteBuf, AllOfCriterion> STREAM_CODEC = Criterion.LIST_STREAM_CODEC.map(AllOfCriterion::new, all -> all.criteria);
+    public static final CriterionType<AllOfCriterion> TYPE = CriterionType.of(CODEC, STREAM_CODEC);
 
     public final List<Criterion> criteria = new ArrayList<>();
 
@@ -50,6 +58,48 @@ public class AllOfCriterion implements Criterion, Consumer<Criterion> {
         return criteria.stream().allMatch(c -> c.test(stack));
     }
 
+    @Override
+    public boolean testVariant(ItemVariant variant, long amount) {
+        for (Criterion criterion : criteria)
+            if (!criterion.testVariant(variant, amount)) return false;
+        return true;
+    }
+
+    @Override
+    public int cost() {
+        var cost = 0;
+        for (Criterion criterion : criteria) cost += criterion.cost();
+        return cost;
+    }
+
+    /**
+     * Returns the intersection of all sub-criteria's accepted items, or null if all could match any item.
+     */
+    @Override
+    public @Nullable Set<Item> getAcceptedItems() {
+        return Criterion.intersectAcceptedItems(criteria);
+    }
+
+    /**
+     * Returns the intersection of all sub-criteria's accepted item IDs, as with {@link #getAcceptedItems()}.
+     */
+    @Override
+    public @Nullable BitSet getAcceptedItemIds() {
+        BitSet ids = null;
+        for (Criterion criterion : criteria) {
+            var accepted = criterion.getAcceptedItemIds();
+            if (accepted == null) continue;
+            if (ids == null) ids = (BitSet) accepted.clone();
+            else ids.and(accepted);
+        }
+        return ids;
+    }
+
+    @Override
+    public boolean onlyTestsItem() {
+        return criteria.stream().allMatch(Criterion::onlyTestsItem);
+    }
+
     @Override
     public void accept(Criterion criterion) {
         if (criterion instanceof AllOfCriterion allOfCriterion) {
@@ -59,6 +109,18 @@ public class AllOfCriterion implements Criterion, Consumer<Criterion> {
         }
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return criteria.equals(((AllOfCriterion) o).criteria);
+    }
+
+    @Override
+    public int hashCode() {
+        return criteria.hashCode();
+    }
+
     @Override
     public String toString() {
         return "AllOfCriterion{" +
@@ -1,13 +1,22 @@
 package red.jackf.whereisit.api.criteria.builtin;
 
 import com.mojang.serialization.MapCodec;
+import net.fabricmc.fabric.api.transfer.v1.item.ItemVariant;
+import net.minecraft.network.RegistryFriendlyByteBuf;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
+import org.jetbrains.annotations.Nullable;
 import red.jackf.whereisit.api.criteria.Criterion;
 import red.jackf.whereisit.api.criteria.CriterionType;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.function.Consumer;
 
 /**
@@ -16,7 +25,8 @@ import java.util.function.Consumer;
  */
 public class AnyOfCriterion implements Criterion, Consumer<Criterion> {
     public static final MapCodec<AnyOfCriterion> CODEC = Criterion.CODEC.listOf().xmap(AnyOfCriterion::new, all -> all.criteria).fieldOf("any_of");
-    public static final CriterionType<AnyOfCriterion> TYPE = CriterionType.of(CODEC);
+    public static final StreamCodec<RegistryFriendlyByteBuf, AnyOfCriterion> STREAM_CODEC = Criterion.LIST_STREAM_CODEC.map(AnyOfCriterion::new, all -> all.criteria);
+    public static final CriterionType<AnyOfCriterion> TYPE = CriterionType.of(CODEC, STREAM_CODEC);
 
     private final List<Criterion> criteria = new ArrayList<>();
     public AnyOfCriterion() {}
@@ -33,6 +43,13 @@ public class AnyOfCriterion implements Criterion, Consumer<Criterion> {
         return this;
     }
 
+    /**
+     * @return Unmodifiable view of this criterion's sub-criteria.
+     */
+    public List<Criterion> getCriteria() {
+        return Collections.unmodifiableList(criteria);
+    }
+
     @Override
     public CriterionType<?> type() {
         return TYPE;
@@ -48,11 +65,71 @@ public class AnyOfCriterion implements Criterion, Consumer<Criterion> {
         return criteria.stream().anyMatch(c -> c.test(stack));
     }
 
+    @Override
+    public boolean testVariant(ItemVariant variant, long amount) {
+        for (Criterion criterion : criteria)
+            if (criterion.testVariant(variant, amount)) return true;
+        return false;
+    }
+
+    @Override
+    public int cost() {
+        var cost = 0;
+        for (Criterion criterion : criteria) cost += criterion.cost();
+        return cost;
+    }
+
+    /**
+     * Returns the union of all sub-criteria's accepted items, or null if any could match any item.
+     */
+    @Override
+    public @Nullable Set<Item> getAcceptedItems() {
+        var items = new HashSet<Item>();
+        for (Criterion criterion : criteria) {
+            var accepted = criterion.getAcceptedItems();
+            if (accepted == null) return null;
+            items.addAll(accepted);
+        }
+        return items;
+    }
+
+    /**
+     * Returns the union of all sub-criteria's accepted item IDs, as with {@link #getAcceptedItems()}.
+     */
+    @Override
+    public @Nullable BitSet getAcceptedItemIds() {
+        BitSet ids = null;
+        for (Criterion criterion : criteria) {
+            var accepted = criterion.getAcceptedItemIds();
+            if (accepted == null) return null;
+            if (ids == null) ids = (BitSet) accepted.clone();
+            else ids.or(accepted);
+        }
+        return ids;
+    }
+
+    @Override
+    public boolean onlyTestsItem() {
+        return criteria.stream().allMatch(Criterion::onlyTestsItem);
+    }
+
     @Override
     public void accept(Criterion criterion) {
         this.criteria.add(criterion);
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return criteria.equals(((AnyOfCriterion) o).criteria);
+    }
+
+    @Override
+    public int hashCode() {
+        return criteria.hashCode();
+    }
+
     @Override
     public String toString() {
         return "AnyOfCriterion{" +
@@ -1,14 +1,18 @@
 package red.jackf.whereisit.api.criteria.builtin;
 
 import com.mojang.serialization.MapCodec;
+import net.fabricmc.fabric.api.transfer.v1.item.ItemVariant;
 import net.minecraft.core.component.DataComponentPatch;
+import net.minecraft.network.RegistryFriendlyByteBuf;
+import net.minecraft.network.codec.StreamCodec;
 import net.minecraft.world.item.ItemStack;
 import red.jackf.whereisit.api.criteria.Criterion;
 import red.jackf.whereisit.api.criteria.CriterionType;
 
 public record ComponentsCriterion(DataComponentPatch components) implements Criterion {
     public static final MapCodec<ComponentsCriterion> CODEC = DataComponentPatch.CODEC.xmap(ComponentsCriterion::new, c -> c.components).fieldOf("components");
-    public static final CriterionType<ComponentsCriterion> TYPE = CriterionType.of(CODEC);
+    public static final StreamCodec<RegistryFriendlyByteBuf, ComponentsCriterion> STREAM_CODEC = DataComponentPatch.STREAM_CODEC.map(ComponentsCriterion::new, ComponentsCriterion::components);
+    public static final CriterionType<ComponentsCriterion> TYPE = CriterionType.of(CODEC, STREAM_CODEC);
 
     @Override
     public CriterionType<?> type() {
@@ -19,4 +23,14 @@ public record ComponentsCriterion(DataComponentPatch components) implements Crit
     public boolean test(ItemStack stack) {
         return stack.getComponentsPatch().equals(this.components);
     }
+
+    @Override
+    public boolean testVariant(ItemVariant variant, long amount) {
+        return variant.getComponents().equals(this.components);
+    }
+
+    @Override
+    public int cost() {
+        return 15;
+    }
 }
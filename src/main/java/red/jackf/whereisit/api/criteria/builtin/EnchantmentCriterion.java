@@ -4,6 +4,9 @@ import com.mojang.serialization.Codec;
 import com.mojang.serialization.MapCodec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
 import net.minecraft.core.Holder;
+import net.minecraft.network.RegistryFriendlyByteBuf;
+import net.minecraft.network.codec.ByteBufCodecs;
+import net.minecraft.network.codec.StreamCodec;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.enchantment.Enchantment;
 import net.minecraft.world.item.enchantment.EnchantmentHelper;
@@ -22,7 +25,14 @@ public record EnchantmentCriterion(Holder<Enchantment> enchantment, @Nullable In
             Enchantment.CODEC.fieldOf("enchantment").forGetter(EnchantmentCriterion::enchantment),
             Codec.INT.optionalFieldOf("targetLevel").forGetter(ench -> Optional.ofNullable(ench.targetLevel))
     ).apply(instance, EnchantmentCriterion::new));
-    public static final CriterionType<EnchantmentCriterion> TYPE = CriterionType.of(CODEC);
+    public static final StreamCodec<RegistryFriendlyByteBuf, EnchantmentCriterion> STREAM_CODEC = StreamCodec.composite(
+            Enchantment.STREAM_CODEC,
+            EnchantmentCriterion::enchantment,
+            ByteBufCodecs.VAR_INT.apply(ByteBufCodecs::optional),
+            ench -> Optional.ofNullable(ench.targetLevel),
+            EnchantmentCriterion::new
+    );
+    public static final CriterionType<EnchantmentCriterion> TYPE = CriterionType.of(CODEC, STREAM_CODEC);
 
     private EnchantmentCriterion(Holder<Enchantment> enchantment, Optional<Integer> targetLevel) {
         this(enchantment, targetLevel.orElse(null));
@@ -48,6 +58,11 @@ public record EnchantmentCriterion(Holder<Enchantment> enchantment, @Nullable In
         else return level > 0;
     }
 
+    @Override
+    public int cost() {
+        return 4;
+    }
+
     @Override
     public String toString() {
         return "EnchantmentCriterion{" +
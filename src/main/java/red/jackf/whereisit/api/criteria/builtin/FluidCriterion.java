@@ -6,6 +6,10 @@ import net.fabricmc.fabric.api.transfer.v1.fluid.FluidStorage;
 import net.fabricmc.fabric.api.transfer.v1.fluid.FluidVariant;
 import net.fabricmc.fabric.api.transfer.v1.storage.StorageView;
 import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.network.RegistryFriendlyByteBuf;
+import net.minecraft.network.codec.ByteBufCodecs;
+import net.minecraft.network.codec.StreamCodec;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.level.material.Fluid;
 import net.minecraft.world.level.material.Fluids;
@@ -17,7 +21,8 @@ import red.jackf.whereisit.api.criteria.CriterionType;
  */
 public record FluidCriterion(Fluid fluid) implements Criterion {
     public static final MapCodec<FluidCriterion> CODEC = BuiltInRegistries.FLUID.byNameCodec().fieldOf("fluid").xmap(FluidCriterion::new, FluidCriterion::fluid);
-    public static final CriterionType<FluidCriterion> TYPE = CriterionType.of(CODEC);
+    public static final StreamCodec<RegistryFriendlyByteBuf, FluidCriterion> STREAM_CODEC = ByteBufCodecs.registry(Registries.FLUID).map(FluidCriterion::new, FluidCriterion::fluid);
+    public static final CriterionType<FluidCriterion> TYPE = CriterionType.of(CODEC, STREAM_CODEC);
 
     @Override
     public CriterionType<?> type() {
@@ -39,4 +44,9 @@ public record FluidCriterion(Fluid fluid) implements Criterion {
         }
         return false;
     }
+
+    @Override
+    public int cost() {
+        return 25;
+    }
 }
@@ -1,19 +1,27 @@
 package red.jackf.whereisit.api.criteria.builtin;
 
 import com.mojang.serialization.MapCodec;
+import net.fabricmc.fabric.api.transfer.v1.item.ItemVariant;
 import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.network.RegistryFriendlyByteBuf;
+import net.minecraft.network.codec.ByteBufCodecs;
+import net.minecraft.network.codec.StreamCodec;
 import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.Items;
 import red.jackf.whereisit.api.criteria.Criterion;
 import red.jackf.whereisit.api.criteria.CriterionType;
 
+import java.util.Set;
+
 /**
  * Checks against an item ID.
  */
 public record ItemCriterion(Item item) implements Criterion {
     public static final MapCodec<ItemCriterion> CODEC = BuiltInRegistries.ITEM.byNameCodec().fieldOf("item").xmap(ItemCriterion::new, ItemCriterion::item);
-    public static final CriterionType<ItemCriterion> TYPE = CriterionType.of(CODEC);
+    public static final StreamCodec<RegistryFriendlyByteBuf, ItemCriterion> STREAM_CODEC = ByteBufCodecs.registry(Registries.ITEM).map(ItemCriterion::new, ItemCriterion::item);
+    public static final CriterionType<ItemCriterion> TYPE = CriterionType.of(CODEC, STREAM_CODEC);
 
     @Override
     public CriterionType<?> type() {
@@ -29,4 +37,24 @@ public record ItemCriterion(Item item) implements Criterion {
     public boolean test(ItemStack stack) {
         return stack.is(this.item);
     }
+
+    @Override
+    public boolean testVariant(ItemVariant variant, long amount) {
+        return variant.isOf(this.item);
+    }
+
+    @Override
+    public int cost() {
+        return 1;
+    }
+
+    @Override
+    public Set<Item> getAcceptedItems() {
+        return Set.of(this.item);
+    }
+
+    @Override
+    public boolean onlyTestsItem() {
+        return true;
+    }
 }
@@ -1,14 +1,23 @@
 package red.jackf.whereisit.api.criteria.builtin;
 
 import com.mojang.serialization.MapCodec;
+import net.fabricmc.fabric.api.transfer.v1.item.ItemVariant;
+import net.minecraft.core.Holder;
 import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.core.registries.Registries;
+import net.minecraft.network.RegistryFriendlyByteBuf;
+import net.minecraft.network.codec.StreamCodec;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.tags.TagKey;
 import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
 import red.jackf.whereisit.api.criteria.Criterion;
 import red.jackf.whereisit.api.criteria.CriterionType;
+import red.jackf.whereisit.util.ItemIdSets;
+
+import java.util.BitSet;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Checks against an item tag.
@@ -17,7 +26,10 @@ public record ItemTagCriterion(TagKey<Item> tag) implements Criterion {
     public static final MapCodec<ItemTagCriterion> CODEC = ResourceLocation.CODEC
             .xmap(resLoc -> TagKey.create(Registries.ITEM, resLoc), TagKey::location)
             .xmap(ItemTagCriterion::new, ItemTagCriterion::tag).fieldOf("tag");
-    public static final CriterionType<ItemTagCriterion> TYPE = CriterionType.of(CODEC);
+    public static final StreamCodec<RegistryFriendlyByteBuf, ItemTagCriterion> STREAM_CODEC = ResourceLocation.STREAM_CODEC
+            .<RegistryFriendlyByteBuf>cast()
+            .map(resLoc -> new ItemTagCriterion(TagKey.create(Registries.ITEM, resLoc)), criterion -> criterion.tag.location());
+    public static final CriterionType<ItemTagCriterion> TYPE = CriterionType.of(CODEC, STREAM_CODEC);
 
     @Override
     public CriterionType<?> type() {
@@ -33,4 +45,31 @@ public record ItemTagCriterion(TagKey<Item> tag) implements Criterion {
     public boolean test(ItemStack stack) {
         return stack.is(tag);
     }
+
+    @Override
+    public boolean testVariant(ItemVariant variant, long amount) {
+        return variant.getItem().builtInRegistryHolder().is(tag);
+    }
+
+    @Override
+    public int cost() {
+        return 2;
+    }
+
+    @Override
+    public Set<Item> getAcceptedItems() {
+        return BuiltInRegistries.ITEM.get(tag)
+                .map(set -> set.stream().map(Holder::value).collect(Collectors.toSet()))
+                .orElse(Set.of());
+    }
+
+    @Override
+    public BitSet getAcceptedItemIds() {
+        return ItemIdSets.ofTag(tag);
+    }
+
+    @Override
+    public boolean onlyTestsItem() {
+        return true;
+    }
 }
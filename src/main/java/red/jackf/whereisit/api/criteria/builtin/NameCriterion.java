@@ -3,7 +3,10 @@ package red.jackf.whereisit.api.criteria.builtin;
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.MapCodec;
 import net.minecraft.core.component.DataComponents;
+import net.minecraft.network.RegistryFriendlyByteBuf;
 import net.minecraft.network.chat.Component;
+import net.minecraft.network.codec.ByteBufCodecs;
+import net.minecraft.network.codec.StreamCodec;
 import net.minecraft.world.item.ItemStack;
 import org.jetbrains.annotations.Nullable;
 import red.jackf.whereisit.api.criteria.Criterion;
@@ -17,7 +20,8 @@ import java.util.Optional;
  */
 public record NameCriterion(@Nullable String name) implements Criterion {
     public static final MapCodec<NameCriterion> CODEC = Codec.STRING.optionalFieldOf("name").xmap(opt -> new NameCriterion(opt.orElse(null)), name -> Optional.ofNullable(name.name));
-    public static final CriterionType<NameCriterion> TYPE = CriterionType.of(CODEC);
+    public static final StreamCodec<RegistryFriendlyByteBuf, NameCriterion> STREAM_CODEC = ByteBufCodecs.STRING_UTF8.apply(ByteBufCodecs::optional).map(opt -> new NameCriterion(opt.orElse(null)), name -> Optional.ofNullable(name.name)).cast();
+    public static final CriterionType<NameCriterion> TYPE = CriterionType.of(CODEC, STREAM_CODEC);
 
     @Override
     public CriterionType<?> type() {
@@ -35,4 +39,9 @@ public record NameCriterion(@Nullable String name) implements Criterion {
             return customName.getString().toLowerCase(Locale.ROOT).contains(this.name.toLowerCase(Locale.ROOT));
         }
     }
+
+    @Override
+    public int cost() {
+        return 5;
+    }
 }
@@ -3,6 +3,10 @@ package red.jackf.whereisit.api.criteria.builtin;
 import com.mojang.serialization.MapCodec;
 import net.minecraft.core.component.DataComponents;
 import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.network.RegistryFriendlyByteBuf;
+import net.minecraft.network.codec.ByteBufCodecs;
+import net.minecraft.network.codec.StreamCodec;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.alchemy.Potion;
 import net.minecraft.world.item.alchemy.PotionContents;
@@ -12,7 +16,8 @@ import red.jackf.whereisit.api.criteria.CriterionType;
 public record PotionEffectCriterion(Potion potion) implements Criterion {
     public static final MapCodec<PotionEffectCriterion> CODEC = BuiltInRegistries.POTION.byNameCodec().xmap(PotionEffectCriterion::new, PotionEffectCriterion::potion)
             .fieldOf("potion");
-    public static final CriterionType<PotionEffectCriterion> TYPE = CriterionType.of(CODEC);
+    public static final StreamCodec<RegistryFriendlyByteBuf, PotionEffectCriterion> STREAM_CODEC = ByteBufCodecs.registry(Registries.POTION).map(PotionEffectCriterion::new, PotionEffectCriterion::potion);
+    public static final CriterionType<PotionEffectCriterion> TYPE = CriterionType.of(CODEC, STREAM_CODEC);
 
     @Override
     public CriterionType<?> type() {
@@ -30,4 +35,9 @@ public record PotionEffectCriterion(Potion potion) implements Criterion {
         if (contents == null) return false;
         return contents.potion().isPresent() && contents.potion().get().value().equals(this.potion);
     }
+
+    @Override
+    public int cost() {
+        return 4;
+    }
 }
@@ -13,6 +13,7 @@ import red.jackf.jackfredlib.api.base.ResultHolder;
 import red.jackf.whereisit.WhereIsIt;
 import red.jackf.whereisit.api.SearchRequest;
 import red.jackf.whereisit.api.SearchResult;
+import red.jackf.whereisit.search.TargetedBlockSearchers;
 
 /**
  * <p>Handles searching an individual position in the world.</p>
@@ -43,6 +44,18 @@ public interface BlockSearcher {
         return ResultHolder.empty();
     }), OVERRIDE, DEFAULT, FALLBACK);
 
+    /**
+     * Register a handler that only applies to certain blocks. This is cheaper than checking the block inside an
+     * {@link #EVENT} handler, as handlers are looked up by block rather than all being called for every position.
+     * Targeted handlers run together at the point their phase's first targeted handler was registered.
+     * @param phase Phase to run in; one of {@link #OVERRIDE}, {@link #DEFAULT} or {@link #FALLBACK}.
+     * @param target Blocks this handler applies to.
+     * @param handler Handler to register.
+     */
+    static void register(ResourceLocation phase, BlockTarget target, BlockSearcher handler) {
+        TargetedBlockSearchers.register(phase, target, handler);
+    }
+
     /**
      * <p>Search a block in the world for a given result.</p>
      *
@@ -0,0 +1,61 @@
+package red.jackf.whereisit.api.search;
+
+import net.fabricmc.fabric.api.event.Event;
+import net.fabricmc.fabric.api.event.EventFactory;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.level.block.state.BlockState;
+import red.jackf.jackfredlib.api.base.ResultHolder;
+import red.jackf.whereisit.api.SearchRequest;
+import red.jackf.whereisit.search.AsyncSearchHandler;
+
+import java.util.function.Predicate;
+
+/**
+ * <p>Copies the contents of a position in the world, so a search can be tested against it off the server thread. This is
+ * only used if the server has asynchronous searching enabled.</p>
+ *
+ * <p>Positions that no snapshotter handles are searched on the server thread using {@link BlockSearcher} as normal. If
+ * your {@link BlockSearcher} handlers need to run on the server thread in order to be correct (for example, if they
+ * override the default behaviour of a block that would otherwise be snapshotted), declare them using
+ * {@link #requireMainThread(Predicate)}.</p>
+ */
+public interface BlockSnapshotter {
+    Event<BlockSnapshotter> EVENT = EventFactory.createWithPhases(BlockSnapshotter.class, handlers -> ((request, player, level, state, pos) -> {
+        for (BlockSnapshotter handler : handlers) {
+            var result = handler.snapshot(request, player, level, state, pos);
+            if (result.shouldTerminate()) return result;
+        }
+        return ResultHolder.pass();
+    }), BlockSearcher.OVERRIDE, BlockSearcher.DEFAULT, BlockSearcher.FALLBACK);
+
+    /**
+     * Declare that block states matching a predicate should always be searched on the server thread using
+     * {@link BlockSearcher}, even when asynchronous searching is enabled. Call this in your plugin's load method.
+     * @param predicate Predicate matching block states that require the server thread.
+     */
+    static void requireMainThread(Predicate<BlockState> predicate) {
+        AsyncSearchHandler.requireMainThread(predicate);
+    }
+
+    /**
+     * <p>Take a snapshot of a block's contents. This is always called on the server thread.</p>
+     *
+     * <p>This should return a {@link ResultHolder#value(Object)} holding a {@link ContainerSnapshot} if your handler can
+     * copy this position's contents, a {@link ResultHolder#empty()} if there is definitely nothing to search at this
+     * position, and {@link ResultHolder#pass()} otherwise.</p>
+     *
+     * <p>Snapshots may share their stack list between positions holding the same contents, such as access points to one
+     * storage network. Stacks shared this way are only tested once per search.</p>
+     * @param request Request being searched for. Only use this for {@link SearchRequest#getSearchData(SearchRequest.DataKey)}
+     *                or to narrow down what needs copying; stacks are tested against it later.
+     * @param player Player initiating the request, use for per-player storages.
+     * @param level Server level the search is being conducted in.
+     * @param state BlockState at the given position in the level.
+     * @param pos Position in the level that is being checked.
+     * @return A {@link ResultHolder} either containing a snapshot, a definitive lack of contents, or a pass on to further
+     * processing.
+     */
+    ResultHolder<ContainerSnapshot> snapshot(SearchRequest request, ServerPlayer player, ServerLevel level, BlockState state, BlockPos pos);
+}
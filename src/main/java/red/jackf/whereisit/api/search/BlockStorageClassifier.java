@@ -0,0 +1,46 @@
+package red.jackf.whereisit.api.search;
+
+import net.fabricmc.fabric.api.event.Event;
+import net.fabricmc.fabric.api.event.EventFactory;
+import net.fabricmc.fabric.api.transfer.v1.item.ItemStorage;
+import net.minecraft.world.level.block.state.BlockState;
+import red.jackf.jackfredlib.api.base.ResultHolder;
+import red.jackf.whereisit.api.EventPhases;
+import red.jackf.whereisit.search.StorageClassCache;
+
+/**
+ * <p>Classifies how a block state could hold items. Results are cached per block state until tags are next reloaded, so
+ * handlers should only depend on the state itself.</p>
+ *
+ * <p>If no handler gives a value, a state is {@link StorageClass#CONNECTED} and searched in full, so states are only
+ * skipped when a handler says so. By default, vanilla blocks without a block entity, container or
+ * {@link ItemStorage#SIDED} block provider are {@link StorageClass#NONE}. Blocks targeted by a searcher registered with a
+ * {@link BlockTarget} are always at least {@link StorageClass#STORAGE}; if your untargeted searchers handle a
+ * {@link StorageClass#NONE} block, classify it yourself. Declare single-block storages as {@link StorageClass#STORAGE}
+ * to skip looking for connected blocks.</p>
+ */
+public interface BlockStorageClassifier {
+    Event<BlockStorageClassifier> EVENT = EventFactory.createWithPhases(BlockStorageClassifier.class, listeners -> state -> {
+        for (BlockStorageClassifier listener : listeners) {
+            var result = listener.classify(state);
+            if (result.hasValue()) return result;
+        }
+        return ResultHolder.pass();
+    }, EventPhases.PRIORITY, EventPhases.DEFAULT, EventPhases.FALLBACK);
+
+    /**
+     * Get the cached classification of a block state.
+     * @param state Block state to classify
+     * @return How this block state could hold items
+     */
+    static StorageClass get(BlockState state) {
+        return StorageClassCache.get(state);
+    }
+
+    /**
+     * Classify a block state.
+     * @param state Block state to classify
+     * @return A result holding this state's class, or {@link ResultHolder#pass()} to let other handlers decide.
+     */
+    ResultHolder<StorageClass> classify(BlockState state);
+}
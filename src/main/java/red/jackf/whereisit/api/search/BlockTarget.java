@@ -0,0 +1,55 @@
+package red.jackf.whereisit.api.search;
+
+import net.minecraft.tags.TagKey;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.entity.BlockEntityType;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Set of blocks that a targeted {@link BlockSearcher} applies to, given by blocks, block tags or block entity types.
+ * Combine targets with {@link #or(BlockTarget)}.
+ *
+ * @see BlockSearcher#register(net.minecraft.resources.ResourceLocation, BlockTarget, BlockSearcher)
+ */
+public record BlockTarget(Set<Block> blocks, Set<TagKey<Block>> tags, Set<BlockEntityType<?>> blockEntityTypes) {
+    public static BlockTarget blocks(Block... blocks) {
+        return new BlockTarget(Set.of(blocks), Set.of(), Set.of());
+    }
+
+    public static BlockTarget tag(TagKey<Block> tag) {
+        return new BlockTarget(Set.of(), Set.of(tag), Set.of());
+    }
+
+    public static BlockTarget blockEntities(BlockEntityType<?>... types) {
+        return new BlockTarget(Set.of(), Set.of(), Set.of(types));
+    }
+
+    /**
+     * @param other Target to combine with
+     * @return A target containing the blocks from both targets
+     */
+    public BlockTarget or(BlockTarget other) {
+        return new BlockTarget(union(blocks, other.blocks), union(tags, other.tags), union(blockEntityTypes, other.blockEntityTypes));
+    }
+
+    /**
+     * @param block Block to check
+     * @return Whether this target includes a block, using currently loaded tags
+     */
+    public boolean matches(Block block) {
+        if (blocks.contains(block)) return true;
+        for (TagKey<Block> tag : tags)
+            if (block.builtInRegistryHolder().is(tag)) return true;
+        for (BlockEntityType<?> type : blockEntityTypes)
+            if (type.isValid(block.defaultBlockState())) return true;
+        return false;
+    }
+
+    private static <T> Set<T> union(Set<T> a, Set<T> b) {
+        var set = new HashSet<>(a);
+        set.addAll(b);
+        return Set.copyOf(set);
+    }
+}
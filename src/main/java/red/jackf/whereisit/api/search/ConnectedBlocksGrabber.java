@@ -1,10 +1,12 @@
 package red.jackf.whereisit.api.search;
 
+import it.unimi.dsi.fastutil.longs.LongList;
 import net.fabricmc.fabric.api.event.Event;
 import net.fabricmc.fabric.api.event.EventFactory;
 import net.minecraft.core.BlockPos;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.state.BlockState;
+import red.jackf.whereisit.util.PackedPositionSet;
 
 import java.util.Comparator;
 import java.util.HashSet;
@@ -45,4 +47,22 @@ public interface ConnectedBlocksGrabber {
         if (set.size() == 1) return List.of(pos.immutable());
         return set.stream().sorted(Comparator.comparingLong(BlockPos::asLong)).toList();
     }
+
+    /**
+     * Gets all connected blocks linked to a given position as {@link BlockPos#asLong() packed positions}, without
+     * allocating a new collection for each call.
+     * @param level Level that's being queried
+     * @param state Block state at the given position
+     * @param pos Position to check for linked blocks
+     * @param buffer List to fill with all packed positions linked to this position, in the same order as
+     *               {@link #getConnected(Level, BlockState, BlockPos)}. Cleared before being filled.
+     */
+    static void getConnected(Level level, BlockState state, BlockPos pos, LongList buffer) {
+        var set = PackedPositionSet.buffer();
+        set.add(pos);
+        EVENT.invoker().getConnected(set, pos, level, state);
+        buffer.clear();
+        buffer.addAll(set.packed());
+        if (buffer.size() > 1) buffer.unstableSort(null);
+    }
 }
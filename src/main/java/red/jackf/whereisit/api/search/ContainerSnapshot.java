@@ -0,0 +1,68 @@
+package red.jackf.whereisit.api.search;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.network.chat.Component;
+import net.minecraft.world.item.ItemStack;
+import org.jetbrains.annotations.Nullable;
+import red.jackf.whereisit.api.SearchRequest;
+import red.jackf.whereisit.api.SearchResult;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable copy of a block's contents, taken on the server thread so that a search can be tested against it on
+ * another thread. Create using {@link #copyOf(Iterable, Component)}.
+ *
+ * @param stacks Copied stacks contained in the block, in the order they should be tested.
+ * @param name Custom name of the block to show on a result, if any.
+ */
+public record ContainerSnapshot(List<ItemStack> stacks, @Nullable Component name) {
+    /**
+     * Copy a set of stacks into a new snapshot. Empty stacks are skipped.
+     * @param stacks Stacks to copy; these are not kept by the snapshot.
+     * @param name Custom name of the block, if any.
+     * @return A snapshot holding copies of all non-empty stacks
+     */
+    public static ContainerSnapshot copyOf(Iterable<ItemStack> stacks, @Nullable Component name) {
+        var copies = new ArrayList<ItemStack>();
+        for (ItemStack stack : stacks)
+            if (!stack.isEmpty()) copies.add(stack.copy());
+        return new ContainerSnapshot(Collections.unmodifiableList(copies), name);
+    }
+
+    /**
+     * Test this snapshot's contents against a search request. Safe to call off the server thread.
+     * @param request Request to test stacks against
+     * @param pos Position this snapshot was taken at
+     * @return A result for the first matching stack, or null if none match
+     */
+    public @Nullable SearchResult search(SearchRequest request, BlockPos pos) {
+        var match = findMatch(request);
+        return match == null ? null : toResult(match, pos);
+    }
+
+    /**
+     * Test this snapshot's contents against a search request. Safe to call off the server thread.
+     * @param request Request to test stacks against
+     * @return The first matching stack, or null if none match
+     */
+    public @Nullable ItemStack findMatch(SearchRequest request) {
+        for (ItemStack stack : stacks)
+            if (SearchRequest.check(stack, request)) return stack;
+        return null;
+    }
+
+    /**
+     * @param match Matching stack from this snapshot
+     * @param pos Position this snapshot was taken at
+     * @return A result for the matching stack at the given position
+     */
+    public SearchResult toResult(ItemStack match, BlockPos pos) {
+        return SearchResult.builder(pos)
+                .item(match)
+                .name(name, null)
+                .build();
+    }
+}
@@ -5,6 +5,7 @@ import com.google.common.collect.Lists;
 import net.fabricmc.fabric.api.event.Event;
 import net.fabricmc.fabric.api.event.EventFactory;
 import net.minecraft.world.item.ItemStack;
+import org.jetbrains.annotations.ApiStatus;
 import red.jackf.whereisit.api.EventPhases;
 
 import java.util.List;
@@ -13,29 +14,45 @@ import java.util.stream.Stream;
 /**
  * Recursively gets a list of all items that are directly contained within another item, such as Shulker Boxes, bundles,
  * or backpacks. Not meant to be used with indirect storage, such as 'ender pouches' or remote terminals.
+ *
+ * @see NestedItemsVisitor NestedItemsVisitor, for a faster alternative that stops at the first match
  */
 public interface NestedItemsGrabber {
     /**
-     * Get a stream of all items directly contained within this item.
+     * Get a stream of all items contained within this item, recursively up to the configured maximum depth. Includes
+     * items from both this event and {@link NestedItemsVisitor}.
      *
      * @param source ItemStack to pull items from.
      * @return Stream of items that are contained within this stack.
      */
     static Stream<ItemStack> get(ItemStack source) {
-        return EVENT.invoker().grab(source);
+        List<ItemStack> result = Lists.newArrayList();
+        NestedItemsVisitor.anyMatch(source, nested -> {
+            result.add(nested);
+            return false;
+        });
+        return result.stream();
     }
 
-    Event<NestedItemsGrabber> EVENT = EventFactory.createWithPhases(NestedItemsGrabber.class, listeners -> stack -> {
-        List<ItemStack> result = Lists.newArrayList();
+    /**
+     * Invoker of {@link #EVENT} while it has no listeners, so that {@link NestedItemsVisitor} can skip it.
+     */
+    @ApiStatus.Internal
+    NestedItemsGrabber NO_LISTENERS = stack -> Stream.empty();
 
-        for (NestedItemsGrabber listener : listeners) {
-            listener.grab(stack).forEach(nested -> {
-                result.add(nested);
-                result.addAll(get(nested).toList());
-            });
-        }
+    /**
+     * Invoker only returns directly contained items; recursion is handled by {@link NestedItemsVisitor}.
+     */
+    Event<NestedItemsGrabber> EVENT = EventFactory.createWithPhases(NestedItemsGrabber.class, listeners -> {
+        if (listeners.length == 0) return NO_LISTENERS;
+        return stack -> {
+            if (listeners.length == 1) return listeners[0].grab(stack);
 
-        return result.stream();
+            Stream<ItemStack> result = Stream.empty();
+            for (NestedItemsGrabber listener : listeners)
+                result = Stream.concat(result, listener.grab(stack));
+            return result;
+        };
     }, EventPhases.PRIORITY, EventPhases.DEFAULT, EventPhases.FALLBACK);
 
     /**
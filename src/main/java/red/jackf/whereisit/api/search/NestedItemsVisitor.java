@@ -0,0 +1,74 @@
+package red.jackf.whereisit.api.search;
+
+import net.fabricmc.fabric.api.event.Event;
+import net.fabricmc.fabric.api.event.EventFactory;
+import net.minecraft.world.item.ItemStack;
+import red.jackf.whereisit.api.EventPhases;
+import red.jackf.whereisit.config.WhereIsItConfig;
+
+import java.util.function.Predicate;
+
+/**
+ * <p>Visits items that are directly contained within another item, such as Shulker Boxes, bundles, or backpacks, stopping
+ * at the first match. Not meant to be used with indirect storage, such as 'ender pouches' or remote terminals.</p>
+ *
+ * <p>This is a faster alternative to {@link NestedItemsGrabber}, which is still supported; listeners should iterate
+ * contents directly rather than building lists or streams.</p>
+ */
+public interface NestedItemsVisitor {
+    /**
+     * Check whether any item within a stack matches a predicate, recursively up to the configured maximum depth. Stops
+     * at the first match.
+     *
+     * @param source ItemStack to check the contents of.
+     * @param predicate Predicate to test nested items against.
+     * @return Whether any nested item matched the predicate.
+     */
+    static boolean anyMatch(ItemStack source, Predicate<ItemStack> predicate) {
+        return EVENT.invoker().visit(source, new Recursive(predicate, WhereIsItConfig.INSTANCE.instance().getCommon().maxNestedSearchDepth));
+    }
+
+    Event<NestedItemsVisitor> EVENT = EventFactory.createWithPhases(NestedItemsVisitor.class, listeners -> (source, visitor) -> {
+        for (NestedItemsVisitor listener : listeners)
+            if (listener.visit(source, visitor)) return true;
+
+        // grabbers using the older API, skipped if there are none so that no stream is created
+        var grabbers = NestedItemsGrabber.EVENT.invoker();
+        return grabbers != NestedItemsGrabber.NO_LISTENERS && grabbers.grab(source).anyMatch(visitor);
+    }, EventPhases.PRIORITY, EventPhases.DEFAULT, EventPhases.FALLBACK);
+
+    /**
+     * Pass each item directly contained within a stack to a visitor, stopping as soon as it returns true. Nested items
+     * should not be recursed into; this is handled by {@link #anyMatch(ItemStack, Predicate)}.
+     *
+     * @param source ItemStack to visit the contents of.
+     * @param visitor Visitor to pass each contained item to.
+     * @return True if the visitor returned true for any item, false otherwise or if no items are contained.
+     */
+    boolean visit(ItemStack source, Predicate<ItemStack> visitor);
+
+    // one instance per top-level check, tracking depth instead of allocating per level
+    final class Recursive implements Predicate<ItemStack> {
+        private final Predicate<ItemStack> predicate;
+        private final int maxDepth;
+        private int depth = 1;
+
+        private Recursive(Predicate<ItemStack> predicate, int maxDepth) {
+            this.predicate = predicate;
+            this.maxDepth = maxDepth;
+        }
+
+        @Override
+        public boolean test(ItemStack stack) {
+            if (predicate.test(stack)) return true;
+            if (depth >= maxDepth) return false;
+
+            depth++;
+            try {
+                return EVENT.invoker().visit(stack, this);
+            } finally {
+                depth--;
+            }
+        }
+    }
+}
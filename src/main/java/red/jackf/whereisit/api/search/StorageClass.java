@@ -0,0 +1,24 @@
+package red.jackf.whereisit.api.search;
+
+/**
+ * How a block state could hold items, used to skip per-position work for blocks that can't be searched.
+ *
+ * @see BlockStorageClassifier
+ */
+public enum StorageClass {
+    /**
+     * This block can never hold items, and is skipped entirely by searches. Only used when a
+     * {@link BlockStorageClassifier} says so.
+     */
+    NONE,
+    /**
+     * This block may hold items, but is never part of a multi-block storage, so {@link ConnectedBlocksGrabber} is
+     * skipped.
+     */
+    STORAGE,
+    /**
+     * This block may hold items, and may be connected to other blocks such as in a double chest. Blocks that no
+     * {@link BlockStorageClassifier} knows about are also in this class, so they're searched in full.
+     */
+    CONNECTED
+}
@@ -0,0 +1,32 @@
+package red.jackf.whereisit.api.search;
+
+import net.fabricmc.fabric.api.event.Event;
+import net.fabricmc.fabric.api.event.EventFactory;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.chunk.LevelChunk;
+
+import java.util.function.Consumer;
+
+/**
+ * <p>Adds positions that should be searched in a chunk, which don't have a block entity.</p>
+ *
+ * <p>Only used in the opt-in {@link red.jackf.whereisit.config.ScanMode#BLOCK_ENTITIES} scan mode, which only checks the
+ * block entities of chunks in range; if your storage doesn't have a block entity, use this event to add its positions.
+ * The default {@link red.jackf.whereisit.config.ScanMode#ALL_BLOCKS} mode checks every block in range instead. Positions
+ * out of the search range are ignored, so you can add every position in the chunk.</p>
+ */
+public interface StoragePositionsGrabber {
+    Event<StoragePositionsGrabber> EVENT = EventFactory.createArrayBacked(StoragePositionsGrabber.class, handlers -> ((level, chunk, positions) -> {
+        for (StoragePositionsGrabber handler : handlers)
+            handler.addPositions(level, chunk, positions);
+    }));
+
+    /**
+     * Add any non-block entity storage positions in a given chunk.
+     * @param level Level the chunk is in
+     * @param chunk Chunk that is being searched
+     * @param positions Consumer to pass storage positions to
+     */
+    void addPositions(ServerLevel level, LevelChunk chunk, Consumer<BlockPos> positions);
+}
@@ -0,0 +1,16 @@
+package red.jackf.whereisit.config;
+
+/**
+ * Which positions the server checks during a search.
+ */
+public enum ScanMode {
+    /**
+     * Only check block entities in range, along with positions added by
+     * {@link red.jackf.whereisit.api.search.StoragePositionsGrabber}.
+     */
+    BLOCK_ENTITIES,
+    /**
+     * Check every block in range. Much slower, but doesn't rely on storages having a block entity.
+     */
+    ALL_BLOCKS
+}
@@ -38,6 +38,7 @@ public class WhereIsItConfig {
     public void validate() {
         this.client.validate();
         this.common.validate();
+        this.server.validate();
     }
 
     public Client getClient() {
@@ -132,6 +133,9 @@ public class WhereIsItConfig {
         @SerialEntry(comment = "Whether to search within certain items that contain other items, such as Shulker Boxes or Bundles.")
         public boolean doNestedSearch = true;
 
+        @SerialEntry(comment = "How many levels deep to search within nested items, such as a bundle within a Shulker Box. In the range [1, 8].")
+        public int maxNestedSearchDepth = 4;
+
         @SerialEntry(comment = "A list of aliases for the search command. Disable by removing all options.")
         public List<String> commandAliases = new ArrayList<>(commandAliasesDefault);
         private static final List<String> commandAliasesDefault = List.of(
@@ -160,6 +164,7 @@ public class WhereIsItConfig {
 
         public void validate() {
             this.searchRangeBlocks = Mth.clamp(this.searchRangeBlocks, 4, 24);
+            this.maxNestedSearchDepth = Mth.clamp(this.maxNestedSearchDepth, 1, 8);
             this.fadeoutTimeTicks = Mth.clamp(this.fadeoutTimeTicks, 5 * TICKS_PER_SECOND, 30 * TICKS_PER_SECOND);
         }
     }
@@ -167,5 +172,33 @@ public class WhereIsItConfig {
     public static class Server {
         @SerialEntry(comment = "Whether to enable the server-side rate limit (3 every 5 seconds).")
         public boolean rateLimit = true;
+
+        @SerialEntry(comment = "Which positions to check when searching. ALL_BLOCKS checks every block in range. BLOCK_ENTITIES is much faster, but only checks block entities along with positions added by other mods, so storages without a block entity such as composters are missed. One of ALL_BLOCKS, BLOCK_ENTITIES")
+        public ScanMode scanMode = ScanMode.ALL_BLOCKS;
+
+        @SerialEntry(comment = "Whether to test container contents against searches on worker threads. Contents are copied on the server thread first; blocks that other mods need to search on the server thread are still searched there.")
+        public boolean asyncSearch = false;
+
+        @SerialEntry(comment = "How many worker threads to use for asynchronous searches. Requires a restart. In the range [1, 8].")
+        public int asyncSearchThreads = 2;
+
+        @SerialEntry(comment = "Maximum time in nanoseconds that searches can use each server tick, shared between all players. Searches that don't finish in time continue on the next tick. Set to 0 to always finish searches immediately.")
+        public long searchTickBudgetNanos = 2_000_000;
+
+        @SerialEntry(comment = "Whether to keep an index of which items each container holds, so searches for specific items only check containers that might hold them. Uses more memory, and only applies to the BLOCK_ENTITIES scan mode.")
+        public boolean useContainerIndex = false;
+
+        @SerialEntry(comment = "Whether to keep a small summary of the items held in each chunk's containers, so searches for specific items can skip chunks that don't hold them. Lighter than the container index, and only applies to the BLOCK_ENTITIES scan mode.")
+        public boolean useChunkItemFilters = false;
+
+        @SerialEntry(comment = "Maximum number of results to return from a search, nearest to the player first. Searches stop early once no closer results are possible. Set to 0 for no limit.")
+        public int maxResults = 0;
+
+        public void validate() {
+            if (this.scanMode == null) this.scanMode = ScanMode.ALL_BLOCKS;
+            this.searchTickBudgetNanos = Math.max(0, this.searchTickBudgetNanos);
+            this.maxResults = Math.max(0, this.maxResults);
+            this.asyncSearchThreads = Mth.clamp(this.asyncSearchThreads, 1, 8);
+        }
     }
 }
@@ -1,17 +1,27 @@
 package red.jackf.whereisit.defaults;
 
-import net.fabricmc.fabric.api.transfer.v1.item.ItemStorage;
+import net.fabricmc.fabric.api.transfer.v1.item.ItemVariant;
+import net.fabricmc.fabric.api.transfer.v1.storage.SlottedStorage;
+import net.fabricmc.fabric.api.transfer.v1.storage.Storage;
+import net.fabricmc.fabric.api.transfer.v1.transaction.Transaction;
 import net.minecraft.core.component.DataComponents;
 import net.minecraft.tags.BlockTags;
 import net.minecraft.world.Nameable;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.level.block.Blocks;
 import net.minecraft.world.level.block.entity.BlockEntityType;
+import org.jetbrains.annotations.Nullable;
 import red.jackf.jackfredlib.api.base.ResultHolder;
 import red.jackf.whereisit.api.SearchRequest;
 import red.jackf.whereisit.api.SearchResult;
 import red.jackf.whereisit.api.search.BlockSearcher;
+import red.jackf.whereisit.api.search.BlockTarget;
 import red.jackf.whereisit.config.WhereIsItConfig;
+import red.jackf.whereisit.util.ItemStorageCache;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Optional;
 
 public class DefaultBlockSearchers {
     static void setup() {
@@ -20,22 +30,31 @@ public class DefaultBlockSearchers {
         setupCheckShulkerItself();
     }
 
+    // storages already searched this search, and the first matching stack if any
+    private static final SearchRequest.DataKey<Map<Storage<ItemVariant>, Optional<ItemStack>>> SEARCHED_STORAGES =
+            SearchRequest.DataKey.of(IdentityHashMap::new);
+
     // check the regular contents of an inventory
     private static void setupTransferApi() {
         BlockSearcher.EVENT.register(BlockSearcher.FALLBACK, (request, player, level, state, pos) -> {
             if (!WhereIsItConfig.INSTANCE.instance().getCommon().debug.enableDefaultSearchers) return ResultHolder.pass();
-            var storage = ItemStorage.SIDED.find(level, pos, state, null, null);
+            var storage = ItemStorageCache.find(level, pos, state);
             if (storage != null) { // storage exists here
-                for (var view : storage.nonEmptyViews()) { // for each view in this side
-                    var resource = view.getResource().toStack((int) view.getAmount()); // get stack
-
-                    if (SearchRequest.check(resource, request)) { // if stack passes test
-                        var result = SearchResult.builder(pos);
-                        result.item(resource);
-                        if (level.getBlockEntity(pos) instanceof Nameable nameable)
-                            result.name(nameable.getCustomName(), null);
-                        return ResultHolder.value(result.build());
-                    }
+                // storage networks expose the same storage from many positions, so only search each one once
+                var searched = request.getSearchData(SEARCHED_STORAGES);
+                var found = searched.get(storage);
+                //noinspection OptionalAssignedToNull
+                if (found == null) {
+                    found = Optional.ofNullable(searchStorage(request, storage));
+                    searched.put(storage, found);
+                }
+
+                if (found.isPresent()) {
+                    var result = SearchResult.builder(pos);
+                    result.item(found.get());
+                    if (level.getBlockEntity(pos) instanceof Nameable nameable)
+                        result.name(nameable.getCustomName(), null);
+                    return ResultHolder.value(result.build());
                 }
             }
 
@@ -43,11 +62,53 @@ public class DefaultBlockSearchers {
         });
     }
 
+    /**
+     * Ask a storage for a request's {@link red.jackf.whereisit.api.criteria.CompiledCriteria#getProbeVariant() exact
+     * item} directly, as large networks can answer without listing every slot. Slotted storages aren't probed, as
+     * extracting from them walks every slot anyway, which would be repeated when searching in full after a miss.
+     * @return The matching stack, {@link ResultHolder#empty()} if the storage definitely holds no match, or
+     * {@link ResultHolder#pass()} if the storage needs searching in full.
+     */
+    static ResultHolder<ItemStack> probe(SearchRequest request, Storage<ItemVariant> storage) {
+        var compiled = request.getCompiled();
+        var probe = compiled.getProbeVariant();
+        // storages that can't be extracted from would always report nothing
+        if (probe == null || Transaction.isOpen() || !storage.supportsExtraction()) return ResultHolder.pass();
+        if (storage instanceof SlottedStorage<ItemVariant>) return ResultHolder.pass();
+
+        long amount;
+        try (var transaction = Transaction.openOuter()) {
+            // never committed, so nothing is removed
+            amount = storage.extract(probe, Long.MAX_VALUE, transaction);
+        }
+
+        if (amount > 0) return ResultHolder.value(probe.toStack((int) Math.min(amount, Integer.MAX_VALUE)));
+
+        // otherwise, only trust a miss if nothing else could match
+        if (compiled.matchesOnlyProbeVariant() && !WhereIsItConfig.INSTANCE.instance().getCommon().doNestedSearch)
+            return ResultHolder.empty();
+        return ResultHolder.pass();
+    }
+
+    private static @Nullable ItemStack searchStorage(SearchRequest request, Storage<ItemVariant> storage) {
+        var probed = probe(request, storage);
+        if (probed.hasValue()) return probed.get();
+        if (probed.shouldTerminate()) return null;
+
+        for (var view : storage.nonEmptyViews()) { // for each view in this side
+            var resource = view.getResource();
+
+            if (SearchRequest.check(resource, view.getAmount(), request)) // if variant passes test
+                return resource.toStack((int) view.getAmount()); // only build a stack for the result
+        }
+
+        return null;
+    }
+
     // check inside a player's local ender chest inventory
     private static void setupEnderChest() {
-        BlockSearcher.EVENT.register(BlockSearcher.DEFAULT, (request, player, level, state, pos) -> {
+        BlockSearcher.register(BlockSearcher.DEFAULT, BlockTarget.blocks(Blocks.ENDER_CHEST), (request, player, level, state, pos) -> {
             if (!WhereIsItConfig.INSTANCE.instance().getCommon().debug.enableDefaultSearchers) return ResultHolder.pass();
-            if (!state.is(Blocks.ENDER_CHEST)) return ResultHolder.pass();
             for (ItemStack enderItem : player.getEnderChestInventory().items)
                 if (SearchRequest.check(enderItem, request))
                     return ResultHolder.value(SearchResult.builder(pos)
@@ -60,9 +121,8 @@ public class DefaultBlockSearchers {
 
     // if searching for a shulker box, check if a placed down box is valid
     private static void setupCheckShulkerItself() {
-        BlockSearcher.EVENT.register(BlockSearcher.DEFAULT, ((request, player, level, state, pos) -> {
+        BlockSearcher.register(BlockSearcher.DEFAULT, BlockTarget.tag(BlockTags.SHULKER_BOXES), ((request, player, level, state, pos) -> {
             if (!WhereIsItConfig.INSTANCE.instance().getCommon().debug.enableDefaultSearchers) return ResultHolder.pass();
-            if (!state.is(BlockTags.SHULKER_BOXES)) return ResultHolder.pass();
             var shulkerBoxBe = level.getBlockEntity(pos, BlockEntityType.SHULKER_BOX);
             if (shulkerBoxBe.isEmpty()) return ResultHolder.pass();
             var fakeItem = new ItemStack(state.getBlock().asItem());
@@ -0,0 +1,107 @@
+package red.jackf.whereisit.defaults;
+
+import net.fabricmc.fabric.api.transfer.v1.item.ItemStorage;
+import net.fabricmc.fabric.api.transfer.v1.item.ItemVariant;
+import net.fabricmc.fabric.api.transfer.v1.storage.Storage;
+import net.minecraft.core.component.DataComponents;
+import net.minecraft.tags.BlockTags;
+import net.minecraft.world.Nameable;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.entity.BlockEntityType;
+import red.jackf.jackfredlib.api.base.ResultHolder;
+import red.jackf.whereisit.api.SearchRequest;
+import red.jackf.whereisit.api.search.BlockSearcher;
+import red.jackf.whereisit.api.search.BlockSnapshotter;
+import red.jackf.whereisit.api.search.ContainerSnapshot;
+import red.jackf.whereisit.config.WhereIsItConfig;
+import red.jackf.whereisit.util.ItemStorageCache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Snapshot equivalents of {@link DefaultBlockSearchers}, used for asynchronous searches.
+ */
+public class DefaultBlockSnapshotters {
+    static void setup() {
+        setupTransferApi();
+        setupEnderChest();
+        setupShulkerBox();
+    }
+
+    private static void addStorageContents(List<ItemStack> stacks, Storage<ItemVariant> storage) {
+        for (var view : storage.nonEmptyViews())
+            stacks.add(view.getResource().toStack((int) view.getAmount()));
+    }
+
+    // storages already copied this search, and their contents; an empty list if the storage holds no matches
+    private static final SearchRequest.DataKey<Map<Storage<ItemVariant>, List<ItemStack>>> SNAPSHOTTED_STORAGES =
+            SearchRequest.DataKey.of(IdentityHashMap::new);
+
+    // copy the regular contents of an inventory
+    private static void setupTransferApi() {
+        BlockSnapshotter.EVENT.register(BlockSearcher.FALLBACK, (request, player, level, state, pos) -> {
+            if (!WhereIsItConfig.INSTANCE.instance().getCommon().debug.enableDefaultSearchers) return ResultHolder.pass();
+            var storage = ItemStorageCache.find(level, pos, state);
+            if (storage == null) return ResultHolder.pass();
+
+            // storage networks expose the same storage from many positions, so only copy each one once and share it
+            var snapshotted = request.getSearchData(SNAPSHOTTED_STORAGES);
+            var stacks = snapshotted.get(storage);
+            if (stacks == null) {
+                stacks = copyStorage(request, storage);
+                snapshotted.put(storage, stacks);
+            }
+            if (stacks.isEmpty()) return ResultHolder.empty();
+
+            var name = level.getBlockEntity(pos) instanceof Nameable nameable ? nameable.getCustomName() : null;
+            return ResultHolder.value(new ContainerSnapshot(stacks, name));
+        });
+    }
+
+    private static List<ItemStack> copyStorage(SearchRequest request, Storage<ItemVariant> storage) {
+        // exact item requests only need the matching amount, not a copy of every slot
+        var probed = DefaultBlockSearchers.probe(request, storage);
+        if (probed.hasValue()) return List.of(probed.get());
+        if (probed.shouldTerminate()) return List.of();
+
+        // stacks from the transfer API are already copies
+        var stacks = new ArrayList<ItemStack>();
+        addStorageContents(stacks, storage);
+        return Collections.unmodifiableList(stacks);
+    }
+
+    // copy a player's local ender chest inventory
+    private static void setupEnderChest() {
+        BlockSnapshotter.EVENT.register(BlockSearcher.DEFAULT, (request, player, level, state, pos) -> {
+            if (!WhereIsItConfig.INSTANCE.instance().getCommon().debug.enableDefaultSearchers) return ResultHolder.pass();
+            if (!state.is(Blocks.ENDER_CHEST)) return ResultHolder.pass();
+            return ResultHolder.value(ContainerSnapshot.copyOf(player.getEnderChestInventory().items, null));
+        });
+    }
+
+    // a placed shulker box can match itself, followed by its contents
+    private static void setupShulkerBox() {
+        BlockSnapshotter.EVENT.register(BlockSearcher.DEFAULT, (request, player, level, state, pos) -> {
+            if (!WhereIsItConfig.INSTANCE.instance().getCommon().debug.enableDefaultSearchers) return ResultHolder.pass();
+            if (!state.is(BlockTags.SHULKER_BOXES)) return ResultHolder.pass();
+            var shulkerBoxBe = level.getBlockEntity(pos, BlockEntityType.SHULKER_BOX);
+            if (shulkerBoxBe.isEmpty()) return ResultHolder.pass();
+
+            var stacks = new ArrayList<ItemStack>();
+            var fakeItem = new ItemStack(state.getBlock().asItem());
+            if (shulkerBoxBe.get().getCustomName() != null)
+                fakeItem.set(DataComponents.CUSTOM_NAME, shulkerBoxBe.get().getCustomName());
+            stacks.add(fakeItem);
+
+            var storage = ItemStorage.SIDED.find(level, pos, state, shulkerBoxBe.get(), null);
+            if (storage != null) addStorageContents(stacks, storage);
+
+            return ResultHolder.value(new ContainerSnapshot(Collections.unmodifiableList(stacks), shulkerBoxBe.get().getCustomName()));
+        });
+    }
+}
@@ -0,0 +1,69 @@
+package red.jackf.whereisit.defaults;
+
+import net.fabricmc.fabric.api.transfer.v1.item.ItemStorage;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.tags.BlockTags;
+import net.minecraft.world.WorldlyContainerHolder;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.ChestBlock;
+import net.minecraft.world.level.block.state.properties.ChestType;
+import red.jackf.jackfredlib.api.base.ResultHolder;
+import red.jackf.whereisit.api.EventPhases;
+import red.jackf.whereisit.api.search.BlockStorageClassifier;
+import red.jackf.whereisit.api.search.StorageClass;
+
+import java.util.Set;
+
+public class DefaultBlockStorageClassifiers {
+    static void setup() {
+        setupChests();
+        setupVanilla();
+        setupVanillaNonStorage();
+    }
+
+    // only double vanilla chests are connected; modded chests may link further blocks
+    private static void setupChests() {
+        BlockStorageClassifier.EVENT.register(state -> {
+            if (!state.is(Blocks.CHEST) && !state.is(Blocks.TRAPPED_CHEST)) return ResultHolder.pass();
+            return ResultHolder.value(state.getValue(ChestBlock.TYPE) == ChestType.SINGLE ? StorageClass.STORAGE : StorageClass.CONNECTED);
+        });
+    }
+
+    // known single-block vanilla containers; other block entities are left connected, as mods may link them
+    private static void setupVanilla() {
+        var storages = Set.of(
+                Blocks.BARREL,
+                Blocks.DISPENSER,
+                Blocks.DROPPER,
+                Blocks.HOPPER,
+                Blocks.FURNACE,
+                Blocks.BLAST_FURNACE,
+                Blocks.SMOKER,
+                Blocks.BREWING_STAND,
+                Blocks.ENDER_CHEST,
+                Blocks.CHISELED_BOOKSHELF,
+                Blocks.CRAFTER,
+                Blocks.DECORATED_POT,
+                Blocks.JUKEBOX,
+                Blocks.LECTERN,
+                Blocks.CAMPFIRE,
+                Blocks.SOUL_CAMPFIRE
+        );
+        BlockStorageClassifier.EVENT.register(EventPhases.FALLBACK, state -> {
+            if (storages.contains(state.getBlock()) || state.is(BlockTags.SHULKER_BOXES)) return ResultHolder.value(StorageClass.STORAGE);
+            return ResultHolder.pass();
+        });
+    }
+
+    // vanilla blocks can only hold items through a block entity, a container or a block storage provider
+    private static void setupVanillaNonStorage() {
+        BlockStorageClassifier.EVENT.register(EventPhases.FALLBACK, state -> {
+            var block = state.getBlock();
+            if (state.hasBlockEntity() || block instanceof WorldlyContainerHolder) return ResultHolder.pass();
+            if (!BuiltInRegistries.BLOCK.getKey(block).getNamespace().equals(ResourceLocation.DEFAULT_NAMESPACE)) return ResultHolder.pass();
+            if (ItemStorage.SIDED.getProvider(block) != null) return ResultHolder.pass();
+            return ResultHolder.value(StorageClass.NONE);
+        });
+    }
+}
@@ -1,11 +1,10 @@
 package red.jackf.whereisit.defaults;
 
 import net.minecraft.core.component.DataComponents;
+import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.component.BundleContents;
 import net.minecraft.world.item.component.ItemContainerContents;
-import red.jackf.whereisit.api.search.NestedItemsGrabber;
-
-import java.util.stream.Stream;
+import red.jackf.whereisit.api.search.NestedItemsVisitor;
 
 public class DefaultNestedItemsGrabbers {
     static void setup() {
@@ -14,20 +13,24 @@ public class DefaultNestedItemsGrabbers {
     }
 
     private static void setupContainers() {
-        NestedItemsGrabber.EVENT.register(source -> {
+        NestedItemsVisitor.EVENT.register((source, visitor) -> {
             ItemContainerContents container = source.get(DataComponents.CONTAINER);
-            if (container == null) return Stream.empty();
+            if (container == null) return false;
 
-            return container.nonEmptyStream();
+            for (ItemStack stack : container.nonEmptyItems())
+                if (visitor.test(stack)) return true;
+            return false;
         });
     }
 
     private static void setupBundles() {
-        NestedItemsGrabber.EVENT.register(source -> {
+        NestedItemsVisitor.EVENT.register((source, visitor) -> {
             BundleContents contents = source.get(DataComponents.BUNDLE_CONTENTS);
-            if (contents == null) return Stream.empty();
+            if (contents == null) return false;
 
-            return contents.itemCopyStream().filter(stack -> !stack.isEmpty());
+            for (ItemStack stack : contents.items())
+                if (!stack.isEmpty() && visitor.test(stack)) return true;
+            return false;
         });
     }
 }
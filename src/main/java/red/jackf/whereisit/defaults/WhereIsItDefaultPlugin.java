@@ -7,7 +7,9 @@ public class WhereIsItDefaultPlugin implements WhereIsItPlugin {
     public void load() {
         BuiltInCriteria.setup();
         DefaultBlockSearchers.setup();
+        DefaultBlockSnapshotters.setup();
         DefaultConnectedBlocksGrabbers.setup();
+        DefaultBlockStorageClassifiers.setup();
         DefaultNestedItemsGrabbers.setup();
 
         DefaultNestedItemStackSearchers.setup();
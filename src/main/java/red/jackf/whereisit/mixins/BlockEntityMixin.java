@@ -0,0 +1,24 @@
+package red.jackf.whereisit.mixins;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.state.BlockState;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import red.jackf.whereisit.search.ContainerIndex;
+
+/**
+ * Keeps the container index up to date when a container's contents change.
+ */
+@Mixin(BlockEntity.class)
+public abstract class BlockEntityMixin {
+    // the instance setChanged() delegates here, and furnaces, hoppers and brewing stands call this directly
+    @Inject(method = "setChanged(Lnet/minecraft/world/level/Level;Lnet/minecraft/core/BlockPos;Lnet/minecraft/world/level/block/state/BlockState;)V", at = @At("HEAD"))
+    private static void whereisit$markIndexDirty(Level level, BlockPos pos, BlockState state, CallbackInfo ci) {
+        if (level instanceof ServerLevel serverLevel) ContainerIndex.onContainerChanged(serverLevel, pos);
+    }
+}
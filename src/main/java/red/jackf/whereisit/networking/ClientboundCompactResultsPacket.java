@@ -0,0 +1,45 @@
+package red.jackf.whereisit.networking;
+
+import net.minecraft.network.RegistryFriendlyByteBuf;
+import net.minecraft.network.codec.ByteBufCodecs;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import org.jetbrains.annotations.Nullable;
+import red.jackf.whereisit.WhereIsIt;
+import red.jackf.whereisit.api.SearchRequest;
+import red.jackf.whereisit.api.SearchResult;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * <p>Search results in a compact format, used instead of {@link ClientboundResultsPacket} and
+ * {@link ClientboundResultsFramePacket} when the client supports it. Can be sent as a single packet with all results,
+ * or as frames while the search is running, with the last one marked as done.</p>
+ *
+ * Buffer format:
+ * <li>id: long</li>
+ * <li>results: see {@link CompactResults}</li>
+ * <li>done: boolean</li>
+ * <li>hasRequest: boolean</li>
+ * <li>if (hasRequest) request: SearchRequest, only sent for {@link ClientboundResultsPacket#WHEREIS_COMMAND_ID}</li>
+ */
+public record ClientboundCompactResultsPacket(long id, List<SearchResult> results, boolean done, @Nullable SearchRequest request) implements CustomPacketPayload {
+    public static final Type<ClientboundCompactResultsPacket> TYPE = new Type<>(WhereIsIt.id("s2c_compactresults_v" + CompactResults.VERSION));
+    public static final StreamCodec<RegistryFriendlyByteBuf, ClientboundCompactResultsPacket> STREAM_CODEC = StreamCodec.composite(
+            ByteBufCodecs.VAR_LONG,
+            ClientboundCompactResultsPacket::id,
+            CompactResults.STREAM_CODEC,
+            ClientboundCompactResultsPacket::results,
+            ByteBufCodecs.BOOL,
+            ClientboundCompactResultsPacket::done,
+            SearchRequest.STREAM_CODEC.apply(ByteBufCodecs::optional).map(opt -> opt.orElse(null), Optional::ofNullable),
+            ClientboundCompactResultsPacket::request,
+            ClientboundCompactResultsPacket::new
+    );
+
+    @Override
+    public Type<ClientboundCompactResultsPacket> type() {
+        return TYPE;
+    }
+}
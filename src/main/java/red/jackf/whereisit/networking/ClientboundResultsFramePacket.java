@@ -0,0 +1,43 @@
+package red.jackf.whereisit.networking;
+
+import net.minecraft.network.RegistryFriendlyByteBuf;
+import net.minecraft.network.codec.ByteBufCodecs;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import red.jackf.whereisit.WhereIsIt;
+import red.jackf.whereisit.api.SearchResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>Part of a search's results, sent while the search is still running. A search sends any number of frames, with the
+ * last one marked as done. Used instead of {@link ClientboundResultsPacket} when the client supports it.</p>
+ *
+ * Buffer format:
+ * <li>id: long</li>
+ * <li>results: Collection&lt;SearchResult&gt;, same format as {@link ClientboundResultsPacket}</li>
+ * <li>done: boolean</li>
+ */
+public record ClientboundResultsFramePacket(long id, List<SearchResult> results, boolean done) implements CustomPacketPayload {
+    public static final Type<ClientboundResultsFramePacket> TYPE = new Type<>(WhereIsIt.id("s2c_resultsframe"));
+    public static final StreamCodec<RegistryFriendlyByteBuf, ClientboundResultsFramePacket> STREAM_CODEC = StreamCodec.composite(
+            ByteBufCodecs.VAR_LONG,
+            ClientboundResultsFramePacket::id,
+            SearchResult.STREAM_CODEC.apply(ByteBufCodecs.collection(ArrayList::new)),
+            ClientboundResultsFramePacket::results,
+            ByteBufCodecs.BOOL,
+            ClientboundResultsFramePacket::done,
+            ClientboundResultsFramePacket::new
+    );
+
+    /**
+     * Most results sent in a single frame, to keep packets small for large searches.
+     */
+    public static final int MAX_RESULTS_PER_FRAME = 256;
+
+    @Override
+    public Type<ClientboundResultsFramePacket> type() {
+        return TYPE;
+    }
+}
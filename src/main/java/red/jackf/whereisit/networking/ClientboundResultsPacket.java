@@ -10,12 +10,13 @@ import red.jackf.whereisit.api.SearchRequest;
 import red.jackf.whereisit.api.SearchResult;
 
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Optional;
 
 /**
  * Buffer format:
  * <li>id: long</li>
- * For each result:
+ * For each result, nearest to the player first:
  * <li>position: BlockPos</li>
  * <li>hasItemDetails: boolean</li>
  * <li>if (hasItemDetails) item: ItemStack</li>
@@ -26,16 +27,17 @@ import java.util.HashSet;
  * <li>numberOfOtherPositions: Collection&lt;BlockPos&gt;</li>
  * After:
  * <li>hasRequest: boolean</li>
- * <li>if (hasRequest) request: SearchRequest</li>
+ * <li>if (hasRequest) request: SearchRequest, only sent for {@link #WHEREIS_COMMAND_ID} as clients already know their
+ * own requests</li>
  */
 public record ClientboundResultsPacket(long id, Collection<SearchResult> results, @Nullable SearchRequest request) implements CustomPacketPayload {
-    public static final Type<ClientboundResultsPacket> TYPE = new Type<>(WhereIsIt.id("s2c_founditem"));
+    public static final Type<ClientboundResultsPacket> TYPE = new Type<>(WhereIsIt.id("s2c_founditem_v2"));
     public static final StreamCodec<RegistryFriendlyByteBuf, ClientboundResultsPacket> STREAM_CODEC = StreamCodec.composite(
             ByteBufCodecs.VAR_LONG,
             ClientboundResultsPacket::id,
-            SearchResult.STREAM_CODEC.apply(ByteBufCodecs.collection(HashSet::new)),
+            SearchResult.STREAM_CODEC.apply(ByteBufCodecs.collection(ArrayList::new)),
             ClientboundResultsPacket::results,
-            ByteBufCodecs.fromCodecWithRegistries(SearchRequest.CODEC),
+            SearchRequest.STREAM_CODEC.apply(ByteBufCodecs::optional).map(opt -> opt.orElse(null), Optional::ofNullable),
             ClientboundResultsPacket::request,
             ClientboundResultsPacket::new
     );
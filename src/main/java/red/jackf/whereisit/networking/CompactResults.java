@@ -0,0 +1,159 @@
+package red.jackf.whereisit.networking;
+
+import io.netty.handler.codec.DecoderException;
+import it.unimi.dsi.fastutil.Hash;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenCustomHashMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.network.RegistryFriendlyByteBuf;
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.ComponentSerialization;
+import net.minecraft.network.codec.ByteBufCodecs;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.phys.Vec3;
+import org.jetbrains.annotations.Nullable;
+import red.jackf.whereisit.api.SearchResult;
+import red.jackf.whereisit.util.Codecs;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * <p>Compact encoding for a list of search results. Positions are written as small offsets instead of absolute
+ * positions, and each distinct item and name is only written once per list, with stack counts written per result.</p>
+ *
+ * Buffer format, versioned by {@link #VERSION}:
+ * <li>origin: BlockPos, the first result's position</li>
+ * <li>items: Collection&lt;ItemStack&gt;, each distinct item and components in the results, with a count of 1</li>
+ * <li>names: Collection&lt;Component&gt;, each distinct name in the results</li>
+ * <li>numberOfResults: VarInt</li>
+ * For each result:
+ * <li>position: 3 * zigzag VarInt, relative to origin</li>
+ * <li>item: VarInt, index into items plus one, or 0 for none</li>
+ * <li>if (hasItem) count: VarInt</li>
+ * <li>name: VarInt, index into names plus one, or 0 for none</li>
+ * <li>if (hasName) nameOffset: Optional&lt;3 * double&gt;</li>
+ * <li>numberOfOtherPositions: VarInt</li>
+ * <li>otherPositions: 3 * zigzag VarInt each, relative to position</li>
+ */
+final class CompactResults {
+    /**
+     * Format version, which is part of the channel ID so that clients without this version fall back to other packets.
+     * Increase this when changing the format.
+     */
+    static final int VERSION = 1;
+    static final StreamCodec<RegistryFriendlyByteBuf, List<SearchResult>> STREAM_CODEC = StreamCodec.of(CompactResults::encode, CompactResults::decode);
+
+    private static final StreamCodec<RegistryFriendlyByteBuf, Optional<Vec3>> OFFSET_CODEC = Codecs.VEC3.apply(ByteBufCodecs::optional);
+    // same item and components, ignoring count, as results hold each container's own amount
+    private static final Hash.Strategy<ItemStack> STACK_STRATEGY = new Hash.Strategy<>() {
+        @Override
+        public int hashCode(ItemStack stack) {
+            return stack == null ? 0 : ItemStack.hashItemAndComponents(stack);
+        }
+
+        @Override
+        public boolean equals(ItemStack a, ItemStack b) {
+            if (a == null || b == null) return a == b;
+            return ItemStack.isSameItemSameComponents(a, b);
+        }
+    };
+
+    private CompactResults() {}
+
+    private static void encode(RegistryFriendlyByteBuf buf, List<SearchResult> results) {
+        var origin = results.isEmpty() ? BlockPos.ZERO : results.get(0).pos();
+        buf.writeLong(origin.asLong());
+
+        Object2IntMap<ItemStack> items = new Object2IntOpenCustomHashMap<>(STACK_STRATEGY);
+        Object2IntMap<Component> names = new Object2IntOpenHashMap<>();
+        List<ItemStack> itemPalette = new ArrayList<>();
+        List<Component> namePalette = new ArrayList<>();
+        for (SearchResult result : results) {
+            if (result.item() != null && !items.containsKey(result.item())) {
+                items.put(result.item(), itemPalette.size());
+                itemPalette.add(result.item());
+            }
+            if (result.name() != null && !names.containsKey(result.name())) {
+                names.put(result.name(), namePalette.size());
+                namePalette.add(result.name());
+            }
+        }
+
+        buf.writeVarInt(itemPalette.size());
+        for (ItemStack stack : itemPalette) ItemStack.OPTIONAL_STREAM_CODEC.encode(buf, stack.copyWithCount(1));
+        buf.writeVarInt(namePalette.size());
+        for (Component name : namePalette) ComponentSerialization.STREAM_CODEC.encode(buf, name);
+
+        buf.writeVarInt(results.size());
+        for (SearchResult result : results) {
+            writeOffset(buf, origin, result.pos());
+            buf.writeVarInt(result.item() == null ? 0 : items.getInt(result.item()) + 1);
+            if (result.item() != null) buf.writeVarInt(result.item().getCount());
+            buf.writeVarInt(result.name() == null ? 0 : names.getInt(result.name()) + 1);
+            if (result.name() != null) OFFSET_CODEC.encode(buf, Optional.ofNullable(result.customNameOffset()));
+            buf.writeVarInt(result.otherPositions().size());
+            for (BlockPos other : result.otherPositions()) writeOffset(buf, result.pos(), other);
+        }
+    }
+
+    private static List<SearchResult> decode(RegistryFriendlyByteBuf buf) {
+        var origin = BlockPos.of(buf.readLong());
+
+        var itemPalette = new ItemStack[buf.readVarInt()];
+        for (int i = 0; i < itemPalette.length; i++) itemPalette[i] = ItemStack.OPTIONAL_STREAM_CODEC.decode(buf);
+        var namePalette = new Component[buf.readVarInt()];
+        for (int i = 0; i < namePalette.length; i++) namePalette[i] = ComponentSerialization.STREAM_CODEC.decode(buf);
+
+        var count = buf.readVarInt();
+        var results = new ArrayList<SearchResult>(Math.min(count, 65536));
+        for (int i = 0; i < count; i++) {
+            var pos = readOffset(buf, origin);
+
+            var item = fromPalette(itemPalette, buf.readVarInt());
+            if (item != null) item = item.copyWithCount(buf.readVarInt());
+
+            var name = fromPalette(namePalette, buf.readVarInt());
+            var nameOffset = name != null ? OFFSET_CODEC.decode(buf).orElse(null) : null;
+
+            // decoded straight into the set the result keeps
+            var others = buf.readVarInt();
+            var otherPositions = new HashSet<BlockPos>(Math.min(others, 64));
+            for (int j = 0; j < others; j++) otherPositions.add(readOffset(buf, pos));
+
+            results.add(SearchResult.ofOwned(pos, item, name, nameOffset, otherPositions));
+        }
+        return results;
+    }
+
+    private static <T> @Nullable T fromPalette(T[] palette, int index) {
+        if (index == 0) return null;
+        if (index > palette.length) throw new DecoderException("Palette index " + index + " out of bounds for " + palette.length);
+        return palette[index - 1];
+    }
+
+    private static void writeOffset(RegistryFriendlyByteBuf buf, BlockPos from, BlockPos to) {
+        buf.writeVarInt(zigzag(to.getX() - from.getX()));
+        buf.writeVarInt(zigzag(to.getY() - from.getY()));
+        buf.writeVarInt(zigzag(to.getZ() - from.getZ()));
+    }
+
+    private static BlockPos readOffset(RegistryFriendlyByteBuf buf, BlockPos from) {
+        return new BlockPos(from.getX() + unzigzag(buf.readVarInt()),
+                from.getY() + unzigzag(buf.readVarInt()),
+                from.getZ() + unzigzag(buf.readVarInt()));
+    }
+
+    // small negative offsets become small positive numbers, so they stay one or two bytes as VarInts
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
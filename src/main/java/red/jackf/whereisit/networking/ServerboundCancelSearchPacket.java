@@ -0,0 +1,29 @@
+package red.jackf.whereisit.networking;
+
+import net.minecraft.network.RegistryFriendlyByteBuf;
+import net.minecraft.network.codec.ByteBufCodecs;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import org.jetbrains.annotations.NotNull;
+import red.jackf.whereisit.WhereIsIt;
+
+/**
+ * Asks the server to stop a search that's still running. Searches are also cancelled when the same player starts a new
+ * one, so this is only needed when the client no longer wants any results.
+ *
+ * Buffer format:
+ * <li>id: long, ID of the search to cancel</li>
+ */
+public record ServerboundCancelSearchPacket(long id) implements CustomPacketPayload {
+    public static final Type<ServerboundCancelSearchPacket> TYPE = new Type<>(WhereIsIt.id("c2s_cancelsearch"));
+    public static final StreamCodec<RegistryFriendlyByteBuf, ServerboundCancelSearchPacket> STREAM_CODEC = StreamCodec.composite(
+            ByteBufCodecs.VAR_LONG,
+            ServerboundCancelSearchPacket::id,
+            ServerboundCancelSearchPacket::new
+    );
+
+    @Override
+    public @NotNull Type<ServerboundCancelSearchPacket> type() {
+        return TYPE;
+    }
+}
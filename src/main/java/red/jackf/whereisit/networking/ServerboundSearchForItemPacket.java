@@ -9,12 +9,11 @@ import red.jackf.whereisit.WhereIsIt;
 import red.jackf.whereisit.api.SearchRequest;
 
 public record ServerboundSearchForItemPacket(long id, SearchRequest request) implements CustomPacketPayload {
-    public static final Type<ServerboundSearchForItemPacket> TYPE = new Type<>(WhereIsIt.id("c2s_searchforitem"));
+    public static final Type<ServerboundSearchForItemPacket> TYPE = new Type<>(WhereIsIt.id("c2s_searchforitem_v2"));
     public static final StreamCodec<RegistryFriendlyByteBuf, ServerboundSearchForItemPacket> STREAM_CODEC = StreamCodec.composite(
             ByteBufCodecs.VAR_LONG,
             ServerboundSearchForItemPacket::id,
-            ByteBufCodecs.fromCodecWithRegistries(SearchRequest.CODEC),
-            //ByteBufCodecs.COMPOUND_TAG.map(SearchRequest::load, SearchRequest::pack),
+            SearchRequest.STREAM_CODEC,
             ServerboundSearchForItemPacket::request,
             ServerboundSearchForItemPacket::new
     );
@@ -0,0 +1,82 @@
+package red.jackf.whereisit.search;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.block.state.BlockState;
+import red.jackf.whereisit.WhereIsIt;
+import red.jackf.whereisit.api.search.ContainerSnapshot;
+import red.jackf.whereisit.config.WhereIsItConfig;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.function.Predicate;
+
+/**
+ * Tests container snapshots against a search on a bounded pool of worker threads.
+ */
+public class AsyncSearchHandler {
+    private static final List<Predicate<BlockState>> mainThreadOnly = new CopyOnWriteArrayList<>();
+    private static final int MAX_QUEUED_SEARCHES = 64;
+    private static ExecutorService executor = null;
+
+    public static void requireMainThread(Predicate<BlockState> predicate) {
+        mainThreadOnly.add(predicate);
+    }
+
+    static boolean requiresMainThread(BlockState state) {
+        for (Predicate<BlockState> predicate : mainThreadOnly)
+            if (predicate.test(state)) return true;
+        return false;
+    }
+
+    private static synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            var threads = WhereIsItConfig.INSTANCE.instance().getServer().asyncSearchThreads;
+            // if the queue is full, the server thread does the work itself rather than letting searches pile up
+            executor = new ThreadPoolExecutor(threads, threads,
+                    30, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(MAX_QUEUED_SEARCHES),
+                    new ThreadFactoryBuilder()
+                            .setNameFormat("WhereIsIt Search Worker #%d")
+                            .setDaemon(true)
+                            .build(),
+                    new ThreadPoolExecutor.CallerRunsPolicy());
+            ((ThreadPoolExecutor) executor).allowCoreThreadTimeOut(true);
+        }
+        return executor;
+    }
+
+    /**
+     * Test a job's snapshots against its request off-thread, and add any results to the job's results. Stops early if
+     * the job is cancelled.
+     * @param job Job holding the request, snapshots and results; its results are owned by the worker until
+     *            <code>callback</code> is called
+     * @param callback Called on the worker thread once all snapshots have been tested, or the job was cancelled
+     */
+    static void submit(SearchJob job, Runnable callback) {
+        var request = job.request;
+        var snapshots = job.snapshots;
+        var results = job.results;
+        getExecutor().execute(() -> {
+            try {
+                // snapshots of the same storage share their stack list, so each is only tested once
+                var matches = new IdentityHashMap<List<ItemStack>, Optional<ItemStack>>();
+                for (var entry : snapshots.entrySet()) {
+                    if (job.cancelled) break;
+                    var snapshot = entry.getValue().snapshot();
+                    var match = matches.computeIfAbsent(snapshot.stacks(), stacks -> Optional.ofNullable(snapshot.findMatch(request)));
+                    if (match.isPresent())
+                        results.put(entry.getKey(), snapshot.toResult(match.get(), entry.getKey()).withOtherPositions(entry.getValue().connected()));
+                }
+            } catch (Exception ex) {
+                WhereIsIt.LOGGER.error("Error during asynchronous search", ex);
+            }
+            callback.run();
+        });
+    }
+
+    record PendingSnapshot(ContainerSnapshot snapshot, List<BlockPos> connected) {}
+}
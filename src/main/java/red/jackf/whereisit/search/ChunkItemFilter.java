@@ -0,0 +1,125 @@
+package red.jackf.whereisit.search;
+
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerChunkEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerWorldEvents;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.chunk.LevelChunk;
+import red.jackf.whereisit.config.WhereIsItConfig;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * <p>Small Bloom filter of the item IDs held in a chunk's block entities, including nested items. Lets searches for
+ * specific items skip a chunk's block entities when none of the items could be there.</p>
+ *
+ * <p>Filters are built the first time a search looks at a chunk, and rebuilt on the next search after any block entity
+ * in the chunk changes. Block entities that can't be summarised (such as ender chests) are never skipped.</p>
+ */
+public class ChunkItemFilter {
+    private static final Map<ServerLevel, Long2ObjectMap<ChunkItemFilter>> FILTERS = new HashMap<>();
+    private static final int BITS = 1024;
+
+    private final long[] bits = new long[BITS / Long.SIZE];
+    // block entities without item storage (such as ender chests), which are always searched
+    private final LongList opaque = new LongArrayList();
+    private boolean dirty = true;
+
+    public static boolean isEnabled() {
+        return WhereIsItConfig.INSTANCE.instance().getServer().useChunkItemFilters;
+    }
+
+    static boolean isTracking() {
+        return !FILTERS.isEmpty();
+    }
+
+    public static void setup() {
+        ServerChunkEvents.CHUNK_UNLOAD.register((level, chunk) -> {
+            var filters = FILTERS.get(level);
+            if (filters != null) filters.remove(chunk.getPos().toLong());
+        });
+        ServerWorldEvents.UNLOAD.register((server, level) -> FILTERS.remove(level));
+    }
+
+    // called on the server thread from ContainerIndex
+    static void onContainerChanged(ServerLevel level, BlockPos pos) {
+        var filters = FILTERS.get(level);
+        if (filters == null) return;
+        var filter = filters.get(ChunkPos.asLong(pos));
+        if (filter != null) filter.dirty = true;
+    }
+
+    /**
+     * Add the block entity positions in a chunk that should be searched for the given items. If none of the items are
+     * in the chunk's summary, only block entities that can't be summarised are added.
+     * @param level Level the chunk is in
+     * @param chunk Chunk to get positions from
+     * @param items Items to look for
+     * @param positions Consumer for positions to search
+     * @return Whether the chunk's summarised block entities were skipped
+     */
+    public static boolean addCandidates(ServerLevel level, LevelChunk chunk, Set<Item> items, Consumer<BlockPos> positions) {
+        var filter = FILTERS.computeIfAbsent(level, l -> new Long2ObjectOpenHashMap<>())
+                .computeIfAbsent(chunk.getPos().toLong(), l -> new ChunkItemFilter());
+        if (filter.dirty) filter.rebuild(level, chunk);
+
+        for (Item item : items) {
+            if (filter.mightContain(BuiltInRegistries.ITEM.getId(item))) {
+                chunk.getBlockEntities().keySet().forEach(positions);
+                return false;
+            }
+        }
+
+        for (int i = 0; i < filter.opaque.size(); i++) positions.accept(BlockPos.of(filter.opaque.getLong(i)));
+        return true;
+    }
+
+    private void rebuild(ServerLevel level, LevelChunk chunk) {
+        Arrays.fill(bits, 0L);
+        opaque.clear();
+        dirty = false;
+
+        for (BlockEntity blockEntity : chunk.getBlockEntities().values()) {
+            var items = ContainerIndex.getHeldItems(level, blockEntity);
+            if (items == null) {
+                opaque.add(blockEntity.getBlockPos().asLong());
+                continue;
+            }
+            var iter = items.iterator();
+            while (iter.hasNext()) add(iter.nextInt());
+        }
+    }
+
+    // two bit positions taken from one mixed hash
+    private void add(int id) {
+        var hash = HashCommon.mix(id);
+        set(hash & (BITS - 1));
+        set((hash >>> 16) & (BITS - 1));
+    }
+
+    private boolean mightContain(int id) {
+        var hash = HashCommon.mix(id);
+        return get(hash & (BITS - 1)) && get((hash >>> 16) & (BITS - 1));
+    }
+
+    private void set(int bit) {
+        bits[bit >>> 6] |= 1L << bit;
+    }
+
+    private boolean get(int bit) {
+        return (bits[bit >>> 6] & (1L << bit)) != 0;
+    }
+}
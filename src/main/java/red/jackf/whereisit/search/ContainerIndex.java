@@ -0,0 +1,182 @@
+package red.jackf.whereisit.search;
+
+import it.unimi.dsi.fastutil.ints.*;
+import it.unimi.dsi.fastutil.longs.*;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerBlockEntityEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerChunkEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerWorldEvents;
+import net.fabricmc.fabric.api.transfer.v1.item.ItemStorage;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.chunk.LevelChunk;
+import org.jetbrains.annotations.Nullable;
+import red.jackf.whereisit.api.search.NestedItemsVisitor;
+import red.jackf.whereisit.config.WhereIsItConfig;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * <p>Optional per-dimension index from item IDs to the container positions holding them, including nested items. Used
+ * to only search containers that might hold an item when a request is limited to certain items.</p>
+ *
+ * <p>Chunks are indexed the first time a search looks at them, then kept up to date by re-indexing changed containers
+ * the next time they're searched. Containers without item storage (such as ender chests) are always searched.</p>
+ */
+public class ContainerIndex {
+    private static final Map<ServerLevel, ContainerIndex> INDICES = new HashMap<>();
+
+    private final Long2ObjectMap<ChunkIndex> chunks = new Long2ObjectOpenHashMap<>();
+
+    public static boolean isEnabled() {
+        return WhereIsItConfig.INSTANCE.instance().getServer().useContainerIndex;
+    }
+
+    public static void setup() {
+        ServerBlockEntityEvents.BLOCK_ENTITY_LOAD.register((blockEntity, level) -> onContainerChanged(level, blockEntity.getBlockPos()));
+        ServerBlockEntityEvents.BLOCK_ENTITY_UNLOAD.register((blockEntity, level) -> onContainerChanged(level, blockEntity.getBlockPos()));
+        ServerChunkEvents.CHUNK_UNLOAD.register((level, chunk) -> {
+            var index = INDICES.get(level);
+            if (index != null) index.chunks.remove(chunk.getPos().toLong());
+        });
+        ServerWorldEvents.UNLOAD.register((server, level) -> INDICES.remove(level));
+    }
+
+    /**
+     * Mark a position as needing to be re-indexed, along with its chunk's {@link ChunkItemFilter}. Called whenever a block entity is changed, loaded or unloaded.
+     * @param level Level the block entity is in
+     * @param pos Position of the changed block entity
+     */
+    public static void onContainerChanged(ServerLevel level, BlockPos pos) {
+        // only populated while in use
+        if (INDICES.isEmpty() && !ChunkItemFilter.isTracking()) return;
+
+        // some mods change containers off-thread
+        if (!level.getServer().isSameThread()) {
+            var immutable = pos.immutable();
+            level.getServer().execute(() -> onContainerChanged(level, immutable));
+            return;
+        }
+
+        ChunkItemFilter.onContainerChanged(level, pos);
+
+        var index = INDICES.get(level);
+        if (index == null) return;
+        // chunks that have never been searched are fully indexed when first used
+        var chunk = index.chunks.get(ChunkPos.asLong(pos));
+        if (chunk != null) chunk.dirty.add(pos.asLong());
+    }
+
+    public static ContainerIndex get(ServerLevel level) {
+        return INDICES.computeIfAbsent(level, l -> new ContainerIndex());
+    }
+
+    /**
+     * Add all positions in a chunk that may contain any of the given items, along with positions that can't be indexed.
+     * @param level Level the chunk is in
+     * @param chunk Chunk to get candidate positions from
+     * @param items Items to look for
+     * @param positions Consumer for positions to search
+     */
+    public void addCandidates(ServerLevel level, LevelChunk chunk, Set<Item> items, Consumer<BlockPos> positions) {
+        var index = chunks.computeIfAbsent(chunk.getPos().toLong(), l -> ChunkIndex.create(chunk));
+        index.refresh(level, chunk);
+
+        var found = new LongOpenHashSet(index.opaque);
+        for (Item item : items) {
+            var holding = index.positionsByItem.get(BuiltInRegistries.ITEM.getId(item));
+            if (holding != null) found.addAll(holding);
+        }
+
+        var iter = found.iterator();
+        while (iter.hasNext()) positions.accept(BlockPos.of(iter.nextLong()));
+    }
+
+    /**
+     * Get the IDs of all items a block entity holds, including nested items and the block's own item.
+     * @param level Level the block entity is in
+     * @param blockEntity Block entity to check
+     * @return Held item IDs, or null if the block entity has no item storage and must always be searched
+     */
+    static @Nullable IntSet getHeldItems(ServerLevel level, BlockEntity blockEntity) {
+        var storage = ItemStorage.SIDED.find(level, blockEntity.getBlockPos(), blockEntity.getBlockState(), blockEntity, null);
+        if (storage == null) return null;
+
+        var items = new IntOpenHashSet();
+        // for searchers that match the block itself, such as placed shulker boxes
+        items.add(BuiltInRegistries.ITEM.getId(blockEntity.getBlockState().getBlock().asItem()));
+
+        var nested = WhereIsItConfig.INSTANCE.instance().getCommon().doNestedSearch;
+        for (var view : storage.nonEmptyViews()) {
+            var variant = view.getResource();
+            items.add(BuiltInRegistries.ITEM.getId(variant.getItem()));
+            // nested items are always held in components, so plain items don't need a stack built
+            if (nested && !variant.getComponents().isEmpty())
+                NestedItemsVisitor.anyMatch(variant.toStack(), stack -> {
+                    items.add(BuiltInRegistries.ITEM.getId(stack.getItem()));
+                    return false;
+                });
+        }
+        return items;
+    }
+
+    private static class ChunkIndex {
+        private final Int2ObjectMap<LongSet> positionsByItem = new Int2ObjectOpenHashMap<>();
+        private final Long2ObjectMap<IntSet> itemsByPosition = new Long2ObjectOpenHashMap<>();
+        private final LongSet opaque = new LongOpenHashSet();
+        private final LongSet dirty = new LongOpenHashSet();
+
+        private static ChunkIndex create(LevelChunk chunk) {
+            var index = new ChunkIndex();
+            for (BlockPos pos : chunk.getBlockEntities().keySet())
+                index.dirty.add(pos.asLong());
+            return index;
+        }
+
+        private void refresh(ServerLevel level, LevelChunk chunk) {
+            if (dirty.isEmpty()) return;
+
+            var iter = dirty.iterator();
+            while (iter.hasNext()) {
+                var pos = iter.nextLong();
+                remove(pos);
+                index(level, chunk, pos);
+            }
+            dirty.clear();
+        }
+
+        private void remove(long pos) {
+            opaque.remove(pos);
+            var items = itemsByPosition.remove(pos);
+            if (items == null) return;
+            var iter = items.iterator();
+            while (iter.hasNext()) {
+                var id = iter.nextInt();
+                var positions = positionsByItem.get(id);
+                if (positions != null && positions.remove(pos) && positions.isEmpty()) positionsByItem.remove(id);
+            }
+        }
+
+        private void index(ServerLevel level, LevelChunk chunk, long packed) {
+            var blockEntity = chunk.getBlockEntity(BlockPos.of(packed), LevelChunk.EntityCreationType.CHECK);
+            if (blockEntity == null) return;
+
+            var items = getHeldItems(level, blockEntity);
+            if (items == null) {
+                opaque.add(packed);
+                return;
+            }
+
+            itemsByPosition.put(packed, items);
+            var iter = items.iterator();
+            while (iter.hasNext())
+                positionsByItem.computeIfAbsent(iter.nextInt(), id -> new LongOpenHashSet()).add(packed);
+        }
+    }
+}
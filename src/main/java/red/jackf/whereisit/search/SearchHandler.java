@@ -5,29 +5,55 @@ import net.fabricmc.fabric.api.networking.v1.PacketSender;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
 import net.fabricmc.loader.api.FabricLoader;
 import net.minecraft.ChatFormatting;
-import net.minecraft.core.BlockPos;
 import net.minecraft.network.chat.Component;
-import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
 import red.jackf.whereisit.WhereIsIt;
 import red.jackf.whereisit.api.SearchRequest;
 import red.jackf.whereisit.api.SearchResult;
-import red.jackf.whereisit.api.search.BlockSearcher;
-import red.jackf.whereisit.api.search.ConnectedBlocksGrabber;
 import red.jackf.whereisit.config.WhereIsItConfig;
+import red.jackf.whereisit.networking.ClientboundCompactResultsPacket;
+import red.jackf.whereisit.networking.ClientboundResultsFramePacket;
 import red.jackf.whereisit.networking.ClientboundResultsPacket;
+import red.jackf.whereisit.networking.ServerboundCancelSearchPacket;
 import red.jackf.whereisit.networking.ServerboundSearchForItemPacket;
 import red.jackf.whereisit.serverside.ServerSideRenderer;
 import red.jackf.whereisit.util.RateLimiter;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 public class SearchHandler {
+    // each player's running search; starting a new one cancels the last
+    private static final Map<UUID, SearchJob> ACTIVE_JOBS = new HashMap<>();
 
     public static void handleFromPacket(ServerboundSearchForItemPacket packet, ServerPlayer player, PacketSender ignored) {
         handle(packet.id(), packet.request(), player);
     }
 
+    public static void handleCancelFromPacket(ServerboundCancelSearchPacket packet, ServerPlayer player, PacketSender ignored) {
+        var job = ACTIVE_JOBS.get(player.getUUID());
+        if (job != null && job.requestId == packet.id()) cancel(player);
+    }
+
+    /**
+     * Cancel a player's running search, if any. No further results are sent for it.
+     */
+    public static void cancel(ServerPlayer player) {
+        var job = ACTIVE_JOBS.remove(player.getUUID());
+        if (job != null) {
+            job.cancelled = true;
+            WhereIsIt.LOGGER.debug("Cancelled search for {}", player.getScoreboardName());
+        }
+    }
+
+    public static void clear() {
+        ACTIVE_JOBS.clear();
+    }
+
     public static void handle(long requestId, SearchRequest request, ServerPlayer player) {
         // clear last server side results
         ServerSideRenderer.fadeServerSide(player);
@@ -53,54 +79,117 @@ public class SearchHandler {
 
         WhereIsIt.LOGGER.debug("Server search for {}: {}", player.getScoreboardName(), request);
 
-        var startTime = System.nanoTime();
-
         // do the search
-        var startPos = player.blockPosition();
-        var level = (ServerLevel) player.level();
-        var pos = new BlockPos.MutableBlockPos();
-        var results = new HashMap<BlockPos, SearchResult>();
-        var range = WhereIsItConfig.INSTANCE.instance().getCommon().searchRangeBlocks;
-        var maxRange = range * range;
-        for (int x = startPos.getX() - range; x <= startPos.getX() + range; x++) {
-            pos.setX(x);
-            for (int y = startPos.getY() - range; y <= startPos.getY() + range; y++) {
-                pos.setY(y);
-                for (int z = startPos.getZ() - range; z <= startPos.getZ() + range; z++) {
-                    pos.setZ(z);
-                    if (pos.distSqr(startPos) > maxRange) continue;
-
-                    var state = level.getBlockState(pos);
-
-                    var connected = ConnectedBlocksGrabber.getConnected(level, state, pos);
-                    var adjustedRoot = connected.get(0);
-
-                    if (results.containsKey(adjustedRoot)) continue;
-
-                    var result = BlockSearcher.EVENT.invoker().searchPosition(request, player, level, state, adjustedRoot);
-                    if (result.hasValue()) {
-                        results.put(adjustedRoot, result.get().withOtherPositions(connected));
-                    }
-                }
-            }
+        var job = new SearchJob(requestId, request, player);
+        var previous = ACTIVE_JOBS.put(player.getUUID(), job);
+        if (previous != null) previous.cancelled = true;
+        // capped searches only know their nearest results at the end, and /whereis results need the request echoed
+        job.streamResults = requestId != ClientboundResultsPacket.WHEREIS_COMMAND_ID
+                && WhereIsItConfig.INSTANCE.instance().getServer().maxResults == 0
+                && !WhereIsItConfig.INSTANCE.instance().getCommon().debug.forceServerSideHighlightsOnly
+                && (ServerPlayNetworking.canSend(player, ClientboundCompactResultsPacket.TYPE) || ServerPlayNetworking.canSend(player, ClientboundResultsFramePacket.TYPE));
+        if (WhereIsItConfig.INSTANCE.instance().getServer().searchTickBudgetNanos > 0) {
+            SearchScheduler.schedule(job);
+        } else {
+            job.ticksSpanned = 1;
+            while (!job.isDone()) job.scanNextChunk();
+            complete(job);
         }
+    }
+
+    /**
+     * Called once a job has scanned all of its chunks, on the server thread.
+     */
+    static void complete(SearchJob job) {
+        if (job.snapshots != null && !job.snapshots.isEmpty()) {
+            // test snapshots off-thread, then come back to send results
+            AsyncSearchHandler.submit(job, () ->
+                    job.level.getServer().execute(() -> finish(job)));
+        } else {
+            finish(job);
+        }
+    }
 
+    private static void finish(SearchJob job) {
+        ACTIVE_JOBS.remove(job.player.getUUID(), job);
+        // don't keep storages or cached matches alive past the search
+        job.request.clearSearchData();
+        // may have been cancelled while snapshots were being tested
+        if (job.cancelled) return;
+
+        var player = job.player;
+        var results = job.getSortedResults();
         WhereIsIt.LOGGER.debug("Server search results for {}: {}", player.getScoreboardName(), results);
 
         // timing
-        var time = System.nanoTime() - startTime;
-        var timingStr = "Search time: %.2fms (%dns)".formatted((float) time / 1_000_000, time);
+        var time = System.nanoTime() - job.startTime;
+        var timingStr = "Search time: %.2fms (%dns) over %d tick(s), %d positions checked, %d unloaded chunks skipped"
+                .formatted((float) time / 1_000_000, time, job.ticksSpanned, job.positionsChecked, job.unloadedChunks);
+        if (job.sectionsPruned > 0) timingStr += ", %d sections (%d positions) pruned".formatted(job.sectionsPruned, job.positionsPruned);
+        if (job.chunksFiltered > 0) timingStr += ", %d chunks filtered out".formatted(job.chunksFiltered);
+        if (job.snapshots != null) timingStr += ", %d snapshots tested asynchronously".formatted(job.snapshots.size());
         WhereIsIt.LOGGER.debug(timingStr);
         if (WhereIsItConfig.INSTANCE.instance().getCommon().debug.printSearchTime) player.sendSystemMessage(Component.literal("[Where Is It] " + timingStr).withStyle(ChatFormatting.YELLOW));
 
-        // send to player
+        if (player.hasDisconnected()) return;
+
+        if (job.streamResults) {
+            // results from snapshots are only known now
+            if (job.snapshots != null) {
+                for (var pos : job.snapshots.keySet()) {
+                    var result = job.results.get(pos);
+                    if (result != null) job.unsentResults.add(result);
+                }
+            }
+            sendResultFrames(job, true);
+            return;
+        }
+
+        // send to player; clients know their own requests, so only /whereis results need it echoed
+        var echoedRequest = job.requestId == ClientboundResultsPacket.WHEREIS_COMMAND_ID ? job.request : null;
         if (!results.isEmpty()) {
             if (WhereIsItConfig.INSTANCE.instance().getCommon().debug.forceServerSideHighlightsOnly || !ServerPlayNetworking.canSend(player, ClientboundResultsPacket.TYPE)) {
-                ServerSideRenderer.doServersideRendering(player, results.values());
+                ServerSideRenderer.doServersideRendering(player, results);
+            } else if (ServerPlayNetworking.canSend(player, ClientboundCompactResultsPacket.TYPE)) {
+                ServerPlayNetworking.send(player, new ClientboundCompactResultsPacket(job.requestId, snapshot(results), true, echoedRequest));
             } else {
                 // send packet
-                ServerPlayNetworking.send(player, new ClientboundResultsPacket(requestId, results.values(), request));
+                ServerPlayNetworking.send(player, new ClientboundResultsPacket(job.requestId, snapshot(results), echoedRequest));
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Send any results found since the last frame to the player. The last frame of a search is always sent, even if empty.
+     */
+    static void sendResultFrames(SearchJob job, boolean done) {
+        if (job.player.hasDisconnected()) return;
+        if (!done && job.unsentResults.isEmpty()) return;
+
+        var compact = ServerPlayNetworking.canSend(job.player, ClientboundCompactResultsPacket.TYPE);
+        var unsent = job.unsentResults;
+        var start = 0;
+        do {
+            var end = Math.min(start + ClientboundResultsFramePacket.MAX_RESULTS_PER_FRAME, unsent.size());
+            var last = end == unsent.size();
+            var frame = snapshot(unsent.subList(start, end));
+            if (compact) {
+                ServerPlayNetworking.send(job.player, new ClientboundCompactResultsPacket(job.requestId, frame, done && last, null));
+            } else {
+                ServerPlayNetworking.send(job.player, new ClientboundResultsFramePacket(job.requestId, frame, done && last));
+            }
+            start = end;
+        } while (start < unsent.size());
+        unsent.clear();
+    }
+
+    /**
+     * Copy results for sending. Payloads are encoded later on the connection's network thread, so results handed off
+     * must not share stacks that the server thread may still change, such as those in a player's ender chest.
+     */
+    private static List<SearchResult> snapshot(List<SearchResult> results) {
+        var snapshot = new ArrayList<SearchResult>(results.size());
+        for (SearchResult result : results) snapshot.add(result.copy());
+        return Collections.unmodifiableList(snapshot);
+    }
+}
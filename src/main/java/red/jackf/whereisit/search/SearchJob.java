@@ -0,0 +1,289 @@
+package red.jackf.whereisit.search;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import org.jetbrains.annotations.Nullable;
+import red.jackf.whereisit.api.SearchRequest;
+import red.jackf.whereisit.api.SearchResult;
+import red.jackf.whereisit.api.search.BlockSearcher;
+import red.jackf.whereisit.api.search.BlockSnapshotter;
+import red.jackf.whereisit.api.search.BlockStorageClassifier;
+import red.jackf.whereisit.api.search.ConnectedBlocksGrabber;
+import red.jackf.whereisit.api.search.StoragePositionsGrabber;
+import red.jackf.whereisit.api.search.StorageClass;
+import red.jackf.whereisit.config.ScanMode;
+import red.jackf.whereisit.config.WhereIsItConfig;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * A resumable server-side search, which is processed a chunk at a time.
+ */
+class SearchJob {
+    final long requestId;
+    final SearchRequest request;
+    final ServerPlayer player;
+    final ServerLevel level;
+    final long startTime = System.nanoTime();
+    final Map<BlockPos, SearchResult> results = new HashMap<>();
+    // only present for asynchronous searches
+    final @Nullable Map<BlockPos, AsyncSearchHandler.PendingSnapshot> snapshots;
+    // whether results are sent in frames as they're found, and the results found since the last frame
+    boolean streamResults = false;
+    final List<SearchResult> unsentResults = new ArrayList<>();
+    // set when the player cancels this search or starts another; checked between chunks and snapshots
+    volatile boolean cancelled = false;
+
+    private final ScanMode scanMode;
+    private final BlockPos startPos;
+    private final int range;
+    private final int maxRange;
+    private final List<ChunkPos> chunks = new ArrayList<>();
+    private int nextChunk = 0;
+    private final int maxResults;
+    // distances of the nearest results found so far, farthest first; only tracked with a result cap
+    private final PriorityQueue<Double> nearestDistances = new PriorityQueue<>(Comparator.reverseOrder());
+    private boolean reachedCap = false;
+
+    // only used when the request is limited to certain items
+    private final @Nullable ContainerIndex index;
+    private final @Nullable Set<Item> acceptedItems;
+    // the container index already narrows positions more precisely, so filters are only used without it
+    private final boolean useChunkFilters;
+
+    // reused between chunks
+    private final BlockPos.MutableBlockPos mutablePos = new BlockPos.MutableBlockPos();
+    private final List<BlockPos> positions = new ArrayList<>();
+    private final LongList connectedBuffer = new LongArrayList();
+    private final BlockPos.MutableBlockPos connectedPos = new BlockPos.MutableBlockPos();
+    // positions already covered by a searched storage, such as the other half of a double chest
+    private final LongSet visited = new LongOpenHashSet();
+
+    int positionsChecked = 0;
+    int unloadedChunks = 0;
+    int chunksFiltered = 0;
+    // only counted in ALL_BLOCKS mode, where empty sections are skipped instead of iterated
+    int sectionsPruned = 0;
+    long positionsPruned = 0;
+    int ticksSpanned = 0;
+
+    SearchJob(long requestId, SearchRequest request, ServerPlayer player) {
+        var config = WhereIsItConfig.INSTANCE.instance();
+        this.requestId = requestId;
+        // search data is scoped to this job, even if the same request object is searched again
+        this.request = request.copy();
+        this.player = player;
+        this.level = (ServerLevel) player.level();
+        this.snapshots = config.getServer().asyncSearch ? new HashMap<>() : null;
+        this.scanMode = config.getServer().scanMode;
+        this.startPos = player.blockPosition();
+        this.range = config.getCommon().searchRangeBlocks;
+        this.maxRange = range * range;
+        this.maxResults = config.getServer().maxResults;
+
+        var useIndex = ContainerIndex.isEnabled();
+        this.useChunkFilters = !useIndex && ChunkItemFilter.isEnabled();
+        this.acceptedItems = (useIndex || useChunkFilters) && scanMode == ScanMode.BLOCK_ENTITIES ? request.getAcceptedItems() : null;
+        this.index = useIndex && acceptedItems != null ? ContainerIndex.get(level) : null;
+
+        for (int chunkX = SectionPos.blockToSectionCoord(startPos.getX() - range); chunkX <= SectionPos.blockToSectionCoord(startPos.getX() + range); chunkX++)
+            for (int chunkZ = SectionPos.blockToSectionCoord(startPos.getZ() - range); chunkZ <= SectionPos.blockToSectionCoord(startPos.getZ() + range); chunkZ++)
+                if (isChunkInRange(chunkX, chunkZ))
+                    chunks.add(new ChunkPos(chunkX, chunkZ));
+        // nearest first, so searches can stop early once they have enough results
+        chunks.sort(Comparator.comparingInt(this::chunkDistSqr));
+    }
+
+    boolean isDone() {
+        return reachedCap || nextChunk >= chunks.size();
+    }
+
+    /**
+     * @return Results found so far in order of distance from the start position, limited to the result cap if set.
+     */
+    List<SearchResult> getSortedResults() {
+        var entries = new ArrayList<>(results.entrySet());
+        entries.sort(Comparator.comparingDouble(entry -> entry.getKey().distSqr(startPos)));
+        var limit = maxResults > 0 ? Math.min(maxResults, entries.size()) : entries.size();
+        var sorted = new ArrayList<SearchResult>(limit);
+        for (int i = 0; i < limit; i++) sorted.add(entries.get(i).getValue());
+        return sorted;
+    }
+
+    /**
+     * Scan the next chunk in this job.
+     */
+    void scanNextChunk() {
+        var chunkPos = chunks.get(nextChunk++);
+
+        // never loads or generates a chunk; searches shouldn't have to wait on chunk IO or worldgen
+        LevelChunk chunk = level.getChunkSource().getChunkNow(chunkPos.x, chunkPos.z);
+        if (chunk == null) {
+            unloadedChunks++;
+        } else {
+            switch (scanMode) {
+                case BLOCK_ENTITIES -> scanBlockEntities(chunk);
+                case ALL_BLOCKS -> scanAllBlocks(chunk);
+            }
+        }
+
+        // once there are enough results, stop when no remaining chunk could hold a closer one
+        if (maxResults > 0 && nearestDistances.size() >= maxResults && nextChunk < chunks.size()
+                && chunkDistSqr(chunks.get(nextChunk)) >= nearestDistances.peek())
+            reachedCap = true;
+    }
+
+    // checks every block in range
+    private void scanAllBlocks(LevelChunk chunk) {
+        var chunkPos = chunk.getPos();
+        var minX = Math.max(startPos.getX() - range, chunkPos.getMinBlockX());
+        var maxX = Math.min(startPos.getX() + range, chunkPos.getMaxBlockX());
+        var minZ = Math.max(startPos.getZ() - range, chunkPos.getMinBlockZ());
+        var maxZ = Math.min(startPos.getZ() + range, chunkPos.getMaxBlockZ());
+
+        for (int sectionY = SectionPos.blockToSectionCoord(startPos.getY() - range); sectionY <= SectionPos.blockToSectionCoord(startPos.getY() + range); sectionY++) {
+            var minY = Math.max(startPos.getY() - range, SectionPos.sectionToBlockCoord(sectionY));
+            var maxY = Math.min(startPos.getY() + range, SectionPos.sectionToBlockCoord(sectionY, 15));
+
+            // world height is always section aligned, so the whole section is either in or out; sections are otherwise
+            // skipped if their palette has no state that could be searched, such as solid stone
+            if (level.isOutsideBuildHeight(minY) || !mayHoldStorage(chunk.getSection(chunk.getSectionIndexFromSectionY(sectionY)))) {
+                sectionsPruned++;
+                positionsPruned += (maxX - minX + 1) * (maxY - minY + 1) * (maxZ - minZ + 1);
+                continue;
+            }
+
+            for (int x = minX; x <= maxX; x++) {
+                mutablePos.setX(x);
+                for (int y = minY; y <= maxY; y++) {
+                    mutablePos.setY(y);
+                    for (int z = minZ; z <= maxZ; z++) {
+                        mutablePos.setZ(z);
+                        if (mutablePos.distSqr(startPos) > maxRange) continue;
+
+                        searchPosition(chunk.getBlockState(mutablePos), mutablePos);
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean mayHoldStorage(LevelChunkSection section) {
+        return !section.hasOnlyAir() && section.maybeHas(state -> BlockStorageClassifier.get(state) != StorageClass.NONE);
+    }
+
+    // only checks block entities and positions from StoragePositionsGrabber
+    private void scanBlockEntities(LevelChunk chunk) {
+        positions.clear();
+        if (index != null) {
+            index.addCandidates(level, chunk, acceptedItems, positions::add);
+        } else if (useChunkFilters && acceptedItems != null) {
+            if (ChunkItemFilter.addCandidates(level, chunk, acceptedItems, positions::add)) chunksFiltered++;
+        } else {
+            // copied, as searchers may add block entities to the chunk
+            positions.addAll(chunk.getBlockEntities().keySet());
+        }
+        StoragePositionsGrabber.EVENT.invoker().addPositions(level, chunk, positions::add);
+        positions.sort(Comparator.comparingDouble(pos -> pos.distSqr(startPos)));
+
+        for (BlockPos pos : positions) {
+            if (pos.distSqr(startPos) > maxRange) continue;
+
+            searchPosition(chunk.getBlockState(pos), pos);
+        }
+    }
+
+    // whether the closest column in the chunk is within range horizontally
+    private boolean isChunkInRange(int chunkX, int chunkZ) {
+        return chunkDistSqr(chunkX, chunkZ) <= maxRange;
+    }
+
+    private int chunkDistSqr(ChunkPos pos) {
+        return chunkDistSqr(pos.x, pos.z);
+    }
+
+    // squared horizontal distance to the closest column in a chunk; no block in the chunk can be closer than this
+    private int chunkDistSqr(int chunkX, int chunkZ) {
+        var dx = distanceToSpan(startPos.getX(), SectionPos.sectionToBlockCoord(chunkX), SectionPos.sectionToBlockCoord(chunkX, 15));
+        var dz = distanceToSpan(startPos.getZ(), SectionPos.sectionToBlockCoord(chunkZ), SectionPos.sectionToBlockCoord(chunkZ, 15));
+        return dx * dx + dz * dz;
+    }
+
+    private static int distanceToSpan(int value, int min, int max) {
+        if (value < min) return min - value;
+        if (value > max) return value - max;
+        return 0;
+    }
+
+    private void searchPosition(BlockState state, BlockPos pos) {
+        positionsChecked++;
+
+        var storageClass = BlockStorageClassifier.get(state);
+        // positions in BLOCK_ENTITIES mode were already chosen as possible storages, such as by StoragePositionsGrabber
+        if (storageClass == StorageClass.NONE && scanMode == ScanMode.ALL_BLOCKS) return;
+
+        var packedPos = pos.asLong();
+        if (visited.contains(packedPos)) return;
+
+        if (storageClass == StorageClass.STORAGE) {
+            connectedBuffer.clear();
+            connectedBuffer.add(packedPos);
+        } else {
+            ConnectedBlocksGrabber.getConnected(level, state, pos, connectedBuffer);
+        }
+        visited.addAll(connectedBuffer);
+
+        // multi-block storages crossing into unloaded chunks would load them when accessed
+        for (int i = 0; i < connectedBuffer.size(); i++)
+            if (!level.isLoaded(connectedPos.set(connectedBuffer.getLong(i)))) return;
+
+        var packedRoot = connectedBuffer.getLong(0);
+        var adjustedRoot = packedRoot == packedPos ? pos.immutable() : BlockPos.of(packedRoot);
+
+        if (snapshots != null && !AsyncSearchHandler.requiresMainThread(state)) {
+            var snapshot = BlockSnapshotter.EVENT.invoker().snapshot(request, player, level, state, adjustedRoot);
+            if (snapshot.hasValue()) {
+                snapshots.put(adjustedRoot, new AsyncSearchHandler.PendingSnapshot(snapshot.get(), getConnectedPositions(adjustedRoot)));
+                return;
+            } else if (snapshot.shouldTerminate()) {
+                return;
+            }
+        }
+
+        var result = BlockSearcher.EVENT.invoker().searchPosition(request, player, level, state, adjustedRoot);
+        if (result.hasValue()) {
+            var withConnected = result.get().withOtherPositions(getConnectedPositions(adjustedRoot));
+            results.put(adjustedRoot, withConnected);
+            if (streamResults) unsentResults.add(withConnected);
+            if (maxResults > 0) {
+                nearestDistances.add(adjustedRoot.distSqr(startPos));
+                if (nearestDistances.size() > maxResults) nearestDistances.poll();
+            }
+        }
+    }
+
+    // only built for positions that produce a result, so the scan itself doesn't allocate
+    private List<BlockPos> getConnectedPositions(BlockPos root) {
+        if (connectedBuffer.size() == 1) return List.of(root);
+        var list = new ArrayList<BlockPos>(connectedBuffer.size());
+        for (int i = 0; i < connectedBuffer.size(); i++) list.add(BlockPos.of(connectedBuffer.getLong(i)));
+        return list;
+    }
+}
@@ -0,0 +1,48 @@
+package red.jackf.whereisit.search;
+
+import net.minecraft.server.MinecraftServer;
+import red.jackf.whereisit.config.WhereIsItConfig;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Runs search jobs at the end of each server tick, within the time budget set in the server config. Jobs take turns a
+ * chunk at a time, so one large search can't hold up other players' searches.
+ */
+public class SearchScheduler {
+    private static final Deque<SearchJob> jobs = new ArrayDeque<>();
+
+    static void schedule(SearchJob job) {
+        jobs.addLast(job);
+    }
+
+    public static void tick(MinecraftServer server) {
+        if (jobs.isEmpty()) return;
+
+        for (SearchJob job : jobs)
+            job.ticksSpanned++;
+
+        // always make some progress, even with a tiny budget
+        var deadline = System.nanoTime() + WhereIsItConfig.INSTANCE.instance().getServer().searchTickBudgetNanos;
+        do {
+            var job = jobs.pollFirst();
+            if (job.cancelled || job.player.hasDisconnected()) continue;
+
+            job.scanNextChunk();
+
+            if (job.isDone()) {
+                SearchHandler.complete(job);
+            } else {
+                jobs.addLast(job);
+            }
+        } while (!jobs.isEmpty() && System.nanoTime() < deadline);
+
+        for (SearchJob job : jobs)
+            if (job.streamResults && !job.cancelled) SearchHandler.sendResultFrames(job, false);
+    }
+
+    public static void clear() {
+        jobs.clear();
+    }
+}
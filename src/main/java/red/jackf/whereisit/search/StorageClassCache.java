@@ -0,0 +1,53 @@
+package red.jackf.whereisit.search;
+
+import net.fabricmc.fabric.api.event.lifecycle.v1.CommonLifecycleEvents;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+import org.jetbrains.annotations.ApiStatus;
+import red.jackf.whereisit.api.search.BlockStorageClassifier;
+import red.jackf.whereisit.api.search.StorageClass;
+
+/**
+ * Caches {@link BlockStorageClassifier} results per block state ID, cleared when tags are reloaded.
+ */
+@ApiStatus.Internal
+public class StorageClassCache {
+    private static final StorageClass[] CLASSES = StorageClass.values();
+    // 0 is unclassified, otherwise ordinal + 1
+    private static volatile byte[] cache = new byte[0];
+
+    public static void setup() {
+        CommonLifecycleEvents.TAGS_LOADED.register((registries, client) -> invalidate());
+    }
+
+    static void invalidate() {
+        cache = new byte[0];
+    }
+
+    public static StorageClass get(BlockState state) {
+        var id = Block.BLOCK_STATE_REGISTRY.getId(state);
+        var cache = StorageClassCache.cache;
+        if (id < 0) return classify(state);
+        if (id >= cache.length) {
+            // states can't be added at runtime, so this only happens once per reload
+            cache = new byte[Block.BLOCK_STATE_REGISTRY.size()];
+            StorageClassCache.cache = cache;
+        }
+
+        var cached = cache[id];
+        if (cached != 0) return CLASSES[cached - 1];
+
+        var result = classify(state);
+        cache[id] = (byte) (result.ordinal() + 1);
+        return result;
+    }
+
+    private static StorageClass classify(BlockState state) {
+        var result = BlockStorageClassifier.EVENT.invoker().classify(state);
+        // unknown blocks may still be handled by searchers or fallback storage providers, so search them in full
+        var storageClass = result.hasValue() ? result.get() : StorageClass.CONNECTED;
+        // blocks with targeted searchers always reach them
+        if (storageClass == StorageClass.NONE && TargetedBlockSearchers.isTargeted(state.getBlock())) return StorageClass.STORAGE;
+        return storageClass;
+    }
+}
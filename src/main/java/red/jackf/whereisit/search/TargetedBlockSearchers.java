@@ -0,0 +1,104 @@
+package red.jackf.whereisit.search;
+
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import net.fabricmc.fabric.api.event.lifecycle.v1.CommonLifecycleEvents;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+import red.jackf.jackfredlib.api.base.ResultHolder;
+import red.jackf.whereisit.api.SearchRequest;
+import red.jackf.whereisit.api.SearchResult;
+import red.jackf.whereisit.api.search.BlockSearcher;
+import red.jackf.whereisit.api.search.BlockTarget;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dispatches targeted {@link BlockSearcher}s by block. One dispatcher is registered to {@link BlockSearcher#EVENT} per
+ * phase, which looks up the handlers for a position's block instead of calling every handler.
+ */
+@ApiStatus.Internal
+public class TargetedBlockSearchers {
+    private static final Map<ResourceLocation, Dispatcher> DISPATCHERS = new HashMap<>();
+
+    public static void setup() {
+        // tags may have changed which blocks are targeted
+        CommonLifecycleEvents.TAGS_LOADED.register((registries, client) -> DISPATCHERS.values().forEach(Dispatcher::invalidate));
+    }
+
+    public static synchronized void register(ResourceLocation phase, BlockTarget target, BlockSearcher handler) {
+        DISPATCHERS.computeIfAbsent(phase, p -> {
+            var dispatcher = new Dispatcher();
+            BlockSearcher.EVENT.register(p, dispatcher);
+            return dispatcher;
+        }).add(target, handler);
+        // newly targeted blocks can't be skipped by searches
+        StorageClassCache.invalidate();
+    }
+
+    /**
+     * @param block Block to check
+     * @return Whether any targeted handler applies to a block, using currently loaded tags
+     */
+    public static synchronized boolean isTargeted(Block block) {
+        for (Dispatcher dispatcher : DISPATCHERS.values())
+            if (dispatcher.getByBlock().containsKey(block)) return true;
+        return false;
+    }
+
+    private static class Dispatcher implements BlockSearcher {
+        private static final BlockSearcher[] NONE = new BlockSearcher[0];
+
+        private final List<Entry> entries = new ArrayList<>();
+        private volatile @Nullable Map<Block, BlockSearcher[]> byBlock = null;
+
+        private synchronized void add(BlockTarget target, BlockSearcher handler) {
+            entries.add(new Entry(target, handler));
+            invalidate();
+        }
+
+        private void invalidate() {
+            byBlock = null;
+        }
+
+        private synchronized Map<Block, BlockSearcher[]> build() {
+            var built = new Reference2ObjectOpenHashMap<Block, BlockSearcher[]>();
+            for (Block block : BuiltInRegistries.BLOCK) {
+                var handlers = new ArrayList<BlockSearcher>();
+                for (Entry entry : entries)
+                    if (entry.target.matches(block)) handlers.add(entry.handler);
+                if (!handlers.isEmpty()) built.put(block, handlers.toArray(NONE));
+            }
+            byBlock = built;
+            return built;
+        }
+
+        private Map<Block, BlockSearcher[]> getByBlock() {
+            var byBlock = this.byBlock;
+            return byBlock == null ? build() : byBlock;
+        }
+
+        @Override
+        public ResultHolder<SearchResult> searchPosition(SearchRequest request, ServerPlayer player, ServerLevel level, BlockState state, BlockPos pos) {
+            var handlers = getByBlock().get(state.getBlock());
+            if (handlers == null) return ResultHolder.pass();
+
+            for (BlockSearcher handler : handlers) {
+                var result = handler.searchPosition(request, player, level, state, pos);
+                if (result.shouldTerminate()) return result;
+            }
+            return ResultHolder.pass();
+        }
+    }
+
+    private record Entry(BlockTarget target, BlockSearcher handler) {}
+}
@@ -0,0 +1,67 @@
+package red.jackf.whereisit.util;
+
+import net.fabricmc.fabric.api.event.lifecycle.v1.CommonLifecycleEvents;
+import net.minecraft.core.Holder;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.tags.TagKey;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sets of item registry IDs as bitsets, so checking whether a stack's item is accepted is a single bit test. Sets built
+ * from tags are cached until tags are next reloaded.
+ */
+public class ItemIdSets {
+    private static final Map<TagKey<Item>, BitSet> TAG_CACHE = new ConcurrentHashMap<>();
+    private static volatile int generation = 0;
+
+    public static void setup() {
+        CommonLifecycleEvents.TAGS_LOADED.register((registries, client) -> {
+            TAG_CACHE.clear();
+            generation++;
+        });
+    }
+
+    /**
+     * @return Counter incremented each time tags are reloaded, used to tell when sets from tags are out of date.
+     */
+    public static int generation() {
+        return generation;
+    }
+
+    /**
+     * @return Registry ID of a stack's item, for testing against sets from this class.
+     */
+    public static int idOf(ItemStack stack) {
+        return BuiltInRegistries.ITEM.getId(stack.getItem());
+    }
+
+    /**
+     * @param items Items to include
+     * @return New set of the given items' IDs
+     */
+    public static BitSet of(Collection<Item> items) {
+        var ids = new BitSet();
+        for (Item item : items) ids.set(BuiltInRegistries.ITEM.getId(item));
+        return ids;
+    }
+
+    /**
+     * @param tag Tag to get items from
+     * @return Shared set of the IDs of all items in a tag. Must not be modified.
+     */
+    public static BitSet ofTag(TagKey<Item> tag) {
+        return TAG_CACHE.computeIfAbsent(tag, key -> {
+            var ids = new BitSet();
+            BuiltInRegistries.ITEM.get(key).ifPresent(set -> {
+                for (Holder<Item> holder : set) ids.set(BuiltInRegistries.ITEM.getId(holder.value()));
+            });
+            return ids;
+        });
+    }
+}
@@ -0,0 +1,81 @@
+package red.jackf.whereisit.util;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerChunkEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerWorldEvents;
+import net.fabricmc.fabric.api.lookup.v1.block.BlockApiCache;
+import net.fabricmc.fabric.api.transfer.v1.item.ItemStorage;
+import net.fabricmc.fabric.api.transfer.v1.item.ItemVariant;
+import net.fabricmc.fabric.api.transfer.v1.storage.Storage;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.block.state.BlockState;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps {@link BlockApiCache}s for {@link ItemStorage#SIDED} at recently searched positions, so repeated searches skip
+ * resolving API providers. Least recently used entries are dropped past a limit, and entries are dropped when their
+ * chunk unloads. Server thread only.
+ */
+public class ItemStorageCache {
+    private static final int MAX_ENTRIES_PER_LEVEL = 4096;
+    private static final Map<ServerLevel, ItemStorageCache> CACHES = new HashMap<>();
+
+    private final Long2ObjectLinkedOpenHashMap<BlockApiCache<Storage<ItemVariant>, Direction>> caches = new Long2ObjectLinkedOpenHashMap<>();
+    private final Long2ObjectMap<LongSet> positionsByChunk = new Long2ObjectOpenHashMap<>();
+
+    public static void setup() {
+        ServerChunkEvents.CHUNK_UNLOAD.register((level, chunk) -> {
+            var cache = CACHES.get(level);
+            if (cache != null) cache.removeChunk(chunk.getPos().toLong());
+        });
+        ServerWorldEvents.UNLOAD.register((server, level) -> CACHES.remove(level));
+    }
+
+    /**
+     * Find the unsided item storage at a position, as with {@link ItemStorage#SIDED}.
+     * @param level Level to look in
+     * @param pos Position to look at
+     * @param state Block state at the position, if known
+     * @return Item storage at this position, or null if none
+     */
+    public static @Nullable Storage<ItemVariant> find(ServerLevel level, BlockPos pos, @Nullable BlockState state) {
+        return CACHES.computeIfAbsent(level, l -> new ItemStorageCache()).get(level, pos).find(state, null);
+    }
+
+    private BlockApiCache<Storage<ItemVariant>, Direction> get(ServerLevel level, BlockPos pos) {
+        var packed = pos.asLong();
+        var cache = caches.getAndMoveToLast(packed);
+        if (cache != null) return cache;
+
+        cache = BlockApiCache.create(ItemStorage.SIDED, level, pos.immutable());
+        caches.putAndMoveToLast(packed, cache);
+        positionsByChunk.computeIfAbsent(ChunkPos.asLong(pos), l -> new LongOpenHashSet()).add(packed);
+
+        if (caches.size() > MAX_ENTRIES_PER_LEVEL) {
+            var evicted = caches.firstLongKey();
+            caches.removeFirst();
+            var chunk = ChunkPos.asLong(BlockPos.of(evicted));
+            var inChunk = positionsByChunk.get(chunk);
+            if (inChunk != null && inChunk.remove(evicted) && inChunk.isEmpty()) positionsByChunk.remove(chunk);
+        }
+
+        return cache;
+    }
+
+    private void removeChunk(long chunk) {
+        var positions = positionsByChunk.remove(chunk);
+        if (positions == null) return;
+        var iter = positions.iterator();
+        while (iter.hasNext()) caches.remove(iter.nextLong());
+    }
+}
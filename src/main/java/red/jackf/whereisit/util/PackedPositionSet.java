@@ -0,0 +1,82 @@
+package red.jackf.whereisit.util;
+
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minecraft.core.BlockPos;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+
+/**
+ * Set of block positions stored as {@link BlockPos#asLong() packed longs}, so adding positions doesn't keep any
+ * {@link BlockPos} objects. Can be cleared and reused.
+ */
+public class PackedPositionSet extends AbstractSet<BlockPos> {
+    private static final ThreadLocal<PackedPositionSet> BUFFER = ThreadLocal.withInitial(PackedPositionSet::new);
+
+    private final LongSet packed = new LongOpenHashSet();
+
+    /**
+     * @return An empty set reused between calls on the same thread. Don't keep a reference to it.
+     */
+    public static PackedPositionSet buffer() {
+        var set = BUFFER.get();
+        set.clear();
+        return set;
+    }
+
+    /**
+     * @return The packed positions in this set.
+     */
+    public LongSet packed() {
+        return packed;
+    }
+
+    @Override
+    public boolean add(BlockPos pos) {
+        return packed.add(pos.asLong());
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof BlockPos pos && packed.contains(pos.asLong());
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return o instanceof BlockPos pos && packed.remove(pos.asLong());
+    }
+
+    @Override
+    public void clear() {
+        packed.clear();
+    }
+
+    @Override
+    public int size() {
+        return packed.size();
+    }
+
+    @Override
+    public @NotNull Iterator<BlockPos> iterator() {
+        LongIterator iter = packed.iterator();
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return iter.hasNext();
+            }
+
+            @Override
+            public BlockPos next() {
+                return BlockPos.of(iter.nextLong());
+            }
+
+            @Override
+            public void remove() {
+                iter.remove();
+            }
+        };
+    }
+}